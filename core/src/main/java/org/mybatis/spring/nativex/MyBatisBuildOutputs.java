@@ -0,0 +1,76 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.ResourceUtils;
+
+/**
+ * The utility class for resolving a file location under the build output directory.
+ * <p>
+ * The build output directory is detected from the first classpath directory (e.g. {@code target/classes} of Maven or
+ * {@code build/classes/java/main} of Gradle). When it cannot be detected, the {@code target} directory under the
+ * working directory is used.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisBuildOutputs {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisBuildOutputs.class);
+
+  private static final List<String> BUILD_OUTPUT_DIRECTORY_NAMES = Arrays.asList("target", "build");
+
+  private MyBatisBuildOutputs() {
+    // NOP
+  }
+
+  /**
+   * Resolve the specified path against the build output directory.
+   *
+   * @param path
+   *          the relative path from the build output directory
+   * @param classLoader
+   *          the class loader for detecting the build output directory
+   *
+   * @return the resolved path
+   */
+  static Path resolve(String path, ClassLoader classLoader) {
+    URL url = classLoader == null ? null : classLoader.getResource("");
+    if (url != null && ResourceUtils.isFileURL(url)) {
+      try {
+        for (Path current = Paths.get(url.toURI()); current != null; current = current.getParent()) {
+          if (current.getFileName() != null
+              && BUILD_OUTPUT_DIRECTORY_NAMES.contains(current.getFileName().toString())) {
+            return current.resolve(path);
+          }
+        }
+      } catch (URISyntaxException | IllegalArgumentException e) {
+        LOG.debug("Fail detecting build output directory. url: " + url, e);
+      }
+    }
+    return Paths.get("target").resolve(path);
+  }
+
+}
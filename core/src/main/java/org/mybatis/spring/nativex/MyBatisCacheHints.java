@@ -0,0 +1,129 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_CONSTRUCTORS;
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_METHODS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_CONSTRUCTORS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_METHODS;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.CacheNamespaceRef;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.springframework.nativex.hint.TypeAccess;
+
+/**
+ * The utility class for registering reflection hints of 2nd level cache.
+ * <p>
+ * The {@link org.apache.ibatis.mapping.CacheBuilder} creates a cache implementation and eviction decorators via
+ * reflection, and applies cache properties via setter methods. This class registers only types that declared by
+ * {@link CacheNamespace} and {@code <cache>} (includes types of namespaces that referred by {@link CacheNamespaceRef}
+ * and {@code <cache-ref>}). Eviction decorators are registered only when the implementation is the
+ * {@link PerpetualCache}, because the {@code CacheBuilder} does not apply them to a custom implementation.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisCacheHints {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisCacheHints.class);
+
+  private static final TypeAccess[] TYPE_ACCESSES = { PUBLIC_CONSTRUCTORS, PUBLIC_METHODS, DECLARED_CONSTRUCTORS,
+      DECLARED_METHODS };
+
+  private MyBatisCacheHints() {
+    // NOP
+  }
+
+  /**
+   * Register cache types that declared on the specified mapper interface.
+   *
+   * @param mapperInterfaceType
+   *          the mapper interface
+   * @param collector
+   *          the collector of native hints
+   */
+  static void registerCacheTypes(Class<?> mapperInterfaceType, MyBatisHintCollector collector) {
+    CacheNamespace cacheNamespace = mapperInterfaceType.getAnnotation(CacheNamespace.class);
+    if (cacheNamespace != null) {
+      registerCacheTypes(cacheNamespace.implementation(), cacheNamespace.eviction(), collector);
+    }
+    CacheNamespaceRef cacheNamespaceRef = mapperInterfaceType.getAnnotation(CacheNamespaceRef.class);
+    if (cacheNamespaceRef != null) {
+      Class<?> referredType = cacheNamespaceRef.value() != void.class ? cacheNamespaceRef.value()
+          : MyBatisMapperXmlTypes.resolveClass(cacheNamespaceRef.name());
+      registerReferredCacheTypes(referredType, collector);
+    }
+  }
+
+  /**
+   * Register cache types that declared in the specified mapper xml file.
+   *
+   * @param mapperNode
+   *          the mapper node
+   * @param typeAliasRegistry
+   *          the type alias registry for resolving type aliases (should be contains built-in cache aliases)
+   * @param collector
+   *          the collector of native hints
+   */
+  static void registerCacheTypes(XNode mapperNode, TypeAliasRegistry typeAliasRegistry,
+      MyBatisHintCollector collector) {
+    XNode cacheNode = mapperNode.evalNode("cache");
+    if (cacheNode != null) {
+      // Same defaults as the XMLMapperBuilder
+      Class<?> implementation = resolveAlias(cacheNode.getStringAttribute("type", "PERPETUAL"), typeAliasRegistry);
+      Class<?> eviction = resolveAlias(cacheNode.getStringAttribute("eviction", "LRU"), typeAliasRegistry);
+      if (implementation != null) {
+        registerCacheTypes(implementation, eviction, collector);
+      }
+    }
+    XNode cacheRefNode = mapperNode.evalNode("cache-ref");
+    if (cacheRefNode != null) {
+      registerReferredCacheTypes(MyBatisMapperXmlTypes.resolveClass(cacheRefNode.getStringAttribute("namespace")),
+          collector);
+    }
+  }
+
+  private static void registerReferredCacheTypes(Class<?> referredType, MyBatisHintCollector collector) {
+    // A cache-ref namespace that declared in a mapper xml file only is registered when parsing it
+    CacheNamespace cacheNamespace = referredType == null ? null : referredType.getAnnotation(CacheNamespace.class);
+    if (cacheNamespace != null) {
+      registerCacheTypes(cacheNamespace.implementation(), cacheNamespace.eviction(), collector);
+    }
+  }
+
+  private static void registerCacheTypes(Class<?> implementation, Class<?> eviction,
+      MyBatisHintCollector collector) {
+    collector.registerType(implementation, TYPE_ACCESSES);
+    if (implementation == PerpetualCache.class && eviction != null) {
+      collector.registerType(eviction, TYPE_ACCESSES);
+    }
+  }
+
+  private static Class<?> resolveAlias(String alias, TypeAliasRegistry typeAliasRegistry) {
+    try {
+      return typeAliasRegistry.resolveAlias(alias);
+    } catch (RuntimeException e) {
+      LOG.debug("Fail resolving cache type. type: " + alias, e);
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,327 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The utility class for mapper xml files that compiled at build time using {@code @MyBatisResourcesScan}.
+ * <p>
+ * A compiled mapper is encoded to a string that consists of length-prefixed tokens, and it can be restored to mapped
+ * statements, result maps and parameter maps without xml parsing.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ * @see MyBatisResourcesScan#compileMappers()
+ */
+public final class MyBatisCompiledMappers {
+
+  static final String FORMAT_VERSION = "1";
+
+  private MyBatisCompiledMappers() {
+    // NOP
+  }
+
+  /**
+   * Return whether compiled mappers can be registered to the specified configuration.
+   * <p>
+   * Compiled mappers can be registered only when the default scripting language is the {@link XMLLanguageDriver} or
+   * the {@link MyBatisXMLLanguageDriver} because statements were compiled with the {@link XMLLanguageDriver}.
+   * </P>
+   *
+   * @param configuration
+   *          the MyBatis configuration
+   *
+   * @return whether compiled mappers can be registered
+   */
+  public static boolean isRegistrable(Configuration configuration) {
+    Class<?> languageDriverType = configuration.getDefaultScriptingLanguageInstance().getClass();
+    return languageDriverType == XMLLanguageDriver.class || languageDriverType == MyBatisXMLLanguageDriver.class;
+  }
+
+  /**
+   * Return the location of mapper xml file that compiled.
+   *
+   * @param compiledMapper
+   *          the compiled mapper
+   *
+   * @return the location of mapper xml file
+   */
+  public static String getLocation(String compiledMapper) {
+    Reader reader = new Reader(compiledMapper);
+    reader.readVersion();
+    return reader.read();
+  }
+
+  /**
+   * Register mapped statements, result maps and parameter maps of compiled mapper to the specified configuration.
+   *
+   * @param compiledMapper
+   *          the compiled mapper
+   * @param configuration
+   *          the MyBatis configuration
+   */
+  public static void register(String compiledMapper, Configuration configuration) {
+    Reader reader = new Reader(compiledMapper);
+    reader.readVersion();
+    String location = reader.read();
+    String resource = new ClassPathResource(location).toString();
+    if (configuration.isResourceLoaded(resource)) {
+      return;
+    }
+    String namespace = reader.read();
+    try {
+      int resultMapCount = reader.readInt();
+      for (int i = 0; i < resultMapCount; i++) {
+        configuration.addResultMap(readResultMap(reader, configuration));
+      }
+      int statementCount = reader.readInt();
+      for (int i = 0; i < statementCount; i++) {
+        configuration.addMappedStatement(readMappedStatement(reader, configuration, resource));
+      }
+    } catch (Exception e) {
+      throw new BuilderException(
+          "Error registering compiled mapper. The XML location is '" + resource + "'. Cause: " + e, e);
+    }
+    configuration.addLoadedResource(resource);
+    bindMapperForNamespace(namespace, configuration);
+  }
+
+  private static ResultMap readResultMap(Reader reader, Configuration configuration) {
+    String id = reader.read();
+    Class<?> type = reader.readClass();
+    Boolean autoMapping = reader.readBoolean();
+    int mappingCount = reader.readInt();
+    List<ResultMapping> resultMappings = new ArrayList<>(mappingCount);
+    for (int i = 0; i < mappingCount; i++) {
+      String property = reader.read();
+      String column = reader.read();
+      Class<?> javaType = reader.readClass();
+      JdbcType jdbcType = reader.readEnum(JdbcType.class);
+      Class<?> typeHandlerType = reader.readClass();
+      int flagCount = reader.readInt();
+      List<ResultFlag> flags = new ArrayList<>(flagCount);
+      for (int j = 0; j < flagCount; j++) {
+        flags.add(reader.readEnum(ResultFlag.class));
+      }
+      resultMappings.add(new ResultMapping.Builder(configuration, property, column, javaType).jdbcType(jdbcType)
+          .typeHandler(resolveTypeHandler(configuration, javaType, typeHandlerType)).flags(flags).build());
+    }
+    return new ResultMap.Builder(configuration, id, type, resultMappings, autoMapping).build();
+  }
+
+  private static MappedStatement readMappedStatement(Reader reader, Configuration configuration, String resource) {
+    String id = reader.read();
+    SqlCommandType sqlCommandType = reader.readEnum(SqlCommandType.class);
+    StatementType statementType = reader.readEnum(StatementType.class);
+    String sql = reader.read();
+    Class<?> parameterType = reader.readClass();
+    int resultMapCount = reader.readInt();
+    List<ResultMap> resultMaps = new ArrayList<>(resultMapCount);
+    for (int i = 0; i < resultMapCount; i++) {
+      String resultMapId = reader.read();
+      Class<?> inlineResultType = reader.readClass();
+      resultMaps.add(inlineResultType == null ? configuration.getResultMap(resultMapId)
+          : new ResultMap.Builder(configuration, resultMapId, inlineResultType, new ArrayList<>(), null).build());
+    }
+    ResultSetType resultSetType = reader.readEnum(ResultSetType.class);
+    Integer fetchSize = reader.readInteger();
+    Integer timeout = reader.readInteger();
+    boolean flushCache = reader.readBoolean();
+    boolean useCache = reader.readBoolean();
+    boolean resultOrdered = reader.readBoolean();
+    Boolean useGeneratedKeys = reader.readBoolean();
+    String keyProperty = reader.read();
+    String keyColumn = reader.read();
+    String resultSets = reader.read();
+    int parameterMappingCount = reader.readInt();
+    List<ParameterMapping> parameterMappings = new ArrayList<>(parameterMappingCount);
+    for (int i = 0; i < parameterMappingCount; i++) {
+      String property = reader.read();
+      ParameterMode mode = reader.readEnum(ParameterMode.class);
+      Class<?> javaType = reader.readClass();
+      JdbcType jdbcType = reader.readEnum(JdbcType.class);
+      Integer numericScale = reader.readInteger();
+      Class<?> typeHandlerType = reader.readClass();
+      String jdbcTypeName = reader.read();
+      parameterMappings.add(new ParameterMapping.Builder(configuration, property, javaType).mode(mode)
+          .jdbcType(jdbcType).numericScale(numericScale)
+          .typeHandler(resolveTypeHandler(configuration, javaType, typeHandlerType)).jdbcTypeName(jdbcTypeName)
+          .build());
+    }
+
+    if (configuration.isShrinkWhitespacesInSql()) {
+      sql = SqlSourceBuilder.removeExtraWhitespaces(sql);
+    }
+    if (resultSetType == null) {
+      resultSetType = configuration.getDefaultResultSetType();
+    }
+    if (useGeneratedKeys == null) {
+      useGeneratedKeys = configuration.isUseGeneratedKeys() && sqlCommandType == SqlCommandType.INSERT;
+    }
+    MappedStatement.Builder builder = new MappedStatement.Builder(configuration, id,
+        new StaticSqlSource(configuration, sql, parameterMappings), sqlCommandType).resource(resource)
+            .fetchSize(fetchSize).timeout(timeout).statementType(statementType)
+            .keyGenerator(useGeneratedKeys ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE)
+            .keyProperty(keyProperty).keyColumn(keyColumn)
+            .lang(configuration.getDefaultScriptingLanguageInstance()).resultOrdered(resultOrdered)
+            .resultSets(resultSets).resultMaps(resultMaps).resultSetType(resultSetType).flushCacheRequired(flushCache)
+            .useCache(useCache);
+    if (parameterType != null) {
+      builder.parameterMap(
+          new ParameterMap.Builder(configuration, id + "-Inline", parameterType, new ArrayList<>()).build());
+    }
+    return builder.build();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static TypeHandler<?> resolveTypeHandler(Configuration configuration, Class<?> javaType,
+      Class<?> typeHandlerType) {
+    if (typeHandlerType == null) {
+      return null;
+    }
+    TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    TypeHandler<?> typeHandler = typeHandlerRegistry
+        .getMappingTypeHandler((Class<? extends TypeHandler<?>>) typeHandlerType);
+    if (typeHandler == null) {
+      typeHandler = typeHandlerRegistry.getInstance(javaType, typeHandlerType);
+    }
+    return typeHandler;
+  }
+
+  private static void bindMapperForNamespace(String namespace, Configuration configuration) {
+    Class<?> boundType = null;
+    try {
+      boundType = Resources.classForName(namespace);
+    } catch (ClassNotFoundException e) {
+      // ignore, bound type is not required
+    }
+    if (boundType != null && !configuration.hasMapper(boundType)) {
+      configuration.addLoadedResource("namespace:" + namespace);
+      configuration.addMapper(boundType);
+    }
+  }
+
+  static class Writer {
+    private static final char NULL_TOKEN = '!';
+    private final StringBuilder buffer = new StringBuilder();
+
+    Writer() {
+      write(FORMAT_VERSION);
+    }
+
+    Writer write(Object value) {
+      if (value == null) {
+        buffer.append(NULL_TOKEN);
+      } else {
+        String token = value instanceof Class ? ((Class<?>) value).getName() : value.toString();
+        buffer.append(token.length()).append(':').append(token);
+      }
+      return this;
+    }
+
+    @Override
+    public String toString() {
+      return buffer.toString();
+    }
+
+  }
+
+  static class Reader {
+    private final String source;
+    private int position;
+
+    Reader(String source) {
+      this.source = source;
+    }
+
+    void readVersion() {
+      String version = read();
+      if (!FORMAT_VERSION.equals(version)) {
+        throw new IllegalStateException("Unsupported compiled mapper format version: " + version);
+      }
+    }
+
+    String read() {
+      if (source.charAt(position) == Writer.NULL_TOKEN) {
+        position++;
+        return null;
+      }
+      int separator = source.indexOf(':', position);
+      int length = Integer.parseInt(source.substring(position, separator));
+      position = separator + 1 + length;
+      return source.substring(separator + 1, position);
+    }
+
+    int readInt() {
+      return Integer.parseInt(read());
+    }
+
+    Integer readInteger() {
+      String value = read();
+      return value == null ? null : Integer.valueOf(value);
+    }
+
+    Boolean readBoolean() {
+      String value = read();
+      return value == null ? null : Boolean.valueOf(value);
+    }
+
+    <E extends Enum<E>> E readEnum(Class<E> enumType) {
+      String value = read();
+      return value == null ? null : Enum.valueOf(enumType, value);
+    }
+
+    Class<?> readClass() {
+      String value = read();
+      if (value == null) {
+        return null;
+      }
+      try {
+        return ClassUtils.forName(value, null);
+      } catch (ClassNotFoundException e) {
+        throw new IllegalStateException("Fail loading class. class: " + value, e);
+      }
+    }
+
+  }
+
+}
@@ -24,20 +24,11 @@ import static org.springframework.nativex.hint.TypeAccess.PUBLIC_CONSTRUCTORS;
 import static org.springframework.nativex.hint.TypeAccess.PUBLIC_FIELDS;
 import static org.springframework.nativex.hint.TypeAccess.PUBLIC_METHODS;
 
-import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
-import org.apache.ibatis.cache.decorators.SoftCache;
-import org.apache.ibatis.cache.decorators.WeakCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.javassist.util.proxy.ProxyFactory;
 import org.apache.ibatis.javassist.util.proxy.RuntimeSupport;
 import org.apache.ibatis.logging.Log;
-import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
-import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
-import org.apache.ibatis.logging.log4j2.Log4j2Impl;
-import org.apache.ibatis.logging.nologging.NoLoggingImpl;
-import org.apache.ibatis.logging.slf4j.Slf4jImpl;
-import org.apache.ibatis.logging.stdout.StdOutImpl;
 import org.apache.ibatis.scripting.defaults.RawLanguageDriver;
 import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -54,6 +45,7 @@ import org.springframework.nativex.type.NativeConfiguration;
  * @author Kazuki Shimizu
  * @author Josh Long
  * @see MyBatisMapperNativeConfigurationProcessor
+ * @see MyBatisLoggingNativeConfigurationProcessor
  */
 // @formatter:off
 @NativeHint(
@@ -74,23 +66,14 @@ import org.springframework.nativex.type.NativeConfiguration;
     types = {
         RawLanguageDriver.class,
         XMLLanguageDriver.class,
+        MyBatisXMLLanguageDriver.class,
         RuntimeSupport.class,
         ProxyFactory.class,
-        Slf4jImpl.class,
         Log.class,
-        JakartaCommonsLoggingImpl.class,
-        Log4j2Impl.class,
-        Jdk14LoggingImpl.class,
-        StdOutImpl.class,
-        NoLoggingImpl.class,
         SqlSessionFactory.class,
         PerpetualCache.class,
-        FifoCache.class,
-        LruCache.class,
-        SoftCache.class,
-        WeakCache.class
+        LruCache.class
     },
-    typeNames = "org.apache.ibatis.logging.log4j.Log4jImpl",
     access = {
         PUBLIC_CONSTRUCTORS,
         PUBLIC_CLASSES,
@@ -0,0 +1,324 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeProxyEntry;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeResourcesEntry;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.nativex.hint.TypeAccess;
+
+/**
+ * The collector that registers native hints to the {@link NativeConfigurationRegistry} only once per entry.
+ * <p>
+ * Registered entries are shared between all MyBatis processors that write into the same registry, and an entry that
+ * already registered (e.g. a type that referred from many mapper methods or scanned again by
+ * {@code @MyBatisResourcesScan}) is not written to the registry again. Counts of registered, deduplicated and skipped
+ * entries are collected per processor, and these are logged at debug level. When the {@link MyBatisHintReport} is
+ * enabled, entries are also reported per mapper and per {@code @MyBatisResourcesScan}.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisHintCollector {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisHintCollector.class);
+
+  private static final Map<NativeConfigurationRegistry, Entries> ENTRIES = Collections
+      .synchronizedMap(new WeakHashMap<>());
+
+  private final NativeConfigurationRegistry registry;
+  private final Entries entries;
+  private final Statistics statistics;
+  private final MyBatisHintReport report;
+  private final MyBatisHintReport.Entry reportEntry;
+
+  private MyBatisHintCollector(NativeConfigurationRegistry registry, Entries entries, Statistics statistics,
+      MyBatisHintReport report, MyBatisHintReport.Entry reportEntry) {
+    this.registry = registry;
+    this.entries = entries;
+    this.statistics = statistics;
+    this.report = report;
+    this.reportEntry = reportEntry;
+  }
+
+  /**
+   * Return a collector for the specified registry and processor.
+   *
+   * @param beanFactory
+   *          the bean factory for retrieving the {@link org.springframework.core.env.Environment}
+   * @param registry
+   *          the registry of native configuration
+   * @param processorType
+   *          the processor type that uses a collector
+   *
+   * @return a collector that shares registered entries with other processors that use the same registry
+   */
+  static MyBatisHintCollector of(ConfigurableListableBeanFactory beanFactory, NativeConfigurationRegistry registry,
+      Class<?> processorType) {
+    Entries entries = ENTRIES.computeIfAbsent(registry, x -> new Entries());
+    Statistics statistics = entries.statistics.computeIfAbsent(processorType.getSimpleName(), Statistics::new);
+    return new MyBatisHintCollector(registry, entries, statistics, MyBatisHintReport.of(beanFactory, registry), null);
+  }
+
+  /**
+   * Return a collector that reports entries as caused by the specified mapper.
+   *
+   * @param namespace
+   *          the mapper namespace (mapper interface name or namespace of mapper xml file)
+   *
+   * @return a collector for the mapper. If the hint report is disabled, return this collector
+   */
+  MyBatisHintCollector forMapper(String namespace) {
+    return report == null ? this
+        : new MyBatisHintCollector(registry, entries, statistics, report, report.mapper(namespace));
+  }
+
+  /**
+   * Return a collector that reports entries as caused by the specified {@code @MyBatisResourcesScan}.
+   *
+   * @param beanName
+   *          the bean name of {@link MyBatisScannedResourcesHolder}
+   * @param beanDefinition
+   *          the bean definition of {@link MyBatisScannedResourcesHolder}
+   *
+   * @return a collector for the scan. If the hint report is disabled, return this collector
+   */
+  MyBatisHintCollector forScan(String beanName, BeanDefinition beanDefinition) {
+    return report == null ? this
+        : new MyBatisHintCollector(registry, entries, statistics, report, report.scan(beanName, beanDefinition));
+  }
+
+  /**
+   * Skip the specified type when it does not need a reflection hint.
+   *
+   * @param type
+   *          the target type
+   *
+   * @return If the type is a primitive type or a JDK type, return {@code true}
+   */
+  boolean skipIfUnnecessary(Class<?> type) {
+    if (type.isPrimitive() || type.getName().startsWith("java")) {
+      statistics.skipped++;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Register a reflection hint with access scopes that have not been registered yet.
+   *
+   * @param type
+   *          the target type
+   * @param accesses
+   *          access scopes
+   */
+  void registerType(Class<?> type, TypeAccess... accesses) {
+    if (reportEntry != null) {
+      reportEntry.addReflectionType(type);
+    }
+    boolean newType = entries.types.add(type);
+    Set<TypeAccess> registeredAccesses = entries.accesses.computeIfAbsent(type, x -> EnumSet.noneOf(TypeAccess.class));
+    TypeAccess[] newAccesses = Stream.of(accesses).filter(registeredAccesses::add).toArray(TypeAccess[]::new);
+    if (newType || newAccesses.length > 0) {
+      registry.reflection().forType(type).withAccess(newAccesses);
+      statistics.registered++;
+    } else {
+      statistics.deduplicated++;
+    }
+  }
+
+  /**
+   * Register a reflection hint with members that have not been registered yet.
+   *
+   * @param type
+   *          the target type
+   * @param executables
+   *          constructors and methods
+   * @param fields
+   *          fields
+   */
+  void registerMembers(Class<?> type, Executable[] executables, Field[] fields) {
+    if (reportEntry != null) {
+      reportEntry.addReflectionType(type);
+    }
+    boolean newType = entries.types.add(type);
+    Executable[] newExecutables = Stream.of(executables).filter(entries.members::add).toArray(Executable[]::new);
+    Field[] newFields = Stream.of(fields).filter(entries.members::add).toArray(Field[]::new);
+    if (newType || newExecutables.length > 0 || newFields.length > 0) {
+      registry.reflection().forType(type).withExecutables(newExecutables).withFields(newFields);
+      statistics.registered++;
+    } else {
+      statistics.deduplicated++;
+    }
+  }
+
+  /**
+   * Mark property accessors of the specified type as registered.
+   *
+   * @param type
+   *          the target type
+   *
+   * @return If property accessors of the type have already been registered, return {@code false}
+   * @see MyBatisReflectionHints#registerPropertyMembers(Class, MyBatisHintCollector)
+   */
+  boolean markPropertyAccessors(Class<?> type) {
+    if (entries.propertyAccessorTypes.add(type)) {
+      return true;
+    }
+    statistics.deduplicated++;
+    return false;
+  }
+
+  /**
+   * Register a proxy hint if it has not been registered yet.
+   *
+   * @param interfaces
+   *          proxy interfaces
+   */
+  void registerProxy(Class<?>... interfaces) {
+    if (reportEntry != null) {
+      reportEntry.addProxyInterfaces(interfaces);
+    }
+    if (entries.proxies.add(Arrays.asList(interfaces))) {
+      registry.proxy().add(NativeProxyEntry.ofInterfaces(interfaces));
+      statistics.registered++;
+    } else {
+      statistics.deduplicated++;
+    }
+  }
+
+  /**
+   * Register a resource hint if it has not been registered yet.
+   *
+   * @param pattern
+   *          the resource pattern
+   */
+  void registerResource(String pattern) {
+    if (reportEntry != null) {
+      reportEntry.addResource(pattern);
+    }
+    if (entries.resources.add(pattern)) {
+      registry.resources().add(NativeResourcesEntry.of(pattern));
+      statistics.registered++;
+    } else {
+      statistics.deduplicated++;
+    }
+  }
+
+  /**
+   * Return statistics of the processor that uses this collector.
+   *
+   * @return statistics of the processor
+   */
+  Statistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Log statistics of the processor that uses this collector, and save the hint report if it is enabled.
+   * <p>
+   * The hint report is saved by every processor because there is no callback after all processors have been
+   * completed.
+   * </P>
+   */
+  void complete() {
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Collected native hints. " + statistics);
+    }
+    if (report != null) {
+      report.save();
+    }
+  }
+
+  private static class Entries {
+    private final Set<Class<?>> types = new HashSet<>();
+    private final Map<Class<?>, Set<TypeAccess>> accesses = new HashMap<>();
+    private final Set<Member> members = new HashSet<>();
+    private final Set<Class<?>> propertyAccessorTypes = new HashSet<>();
+    private final Set<List<Class<?>>> proxies = new HashSet<>();
+    private final Set<String> resources = new HashSet<>();
+    private final Map<String, Statistics> statistics = new LinkedHashMap<>();
+  }
+
+  /**
+   * Statistics of native hint entries per processor.
+   */
+  static class Statistics {
+
+    private final String processorName;
+    private int registered;
+    private int deduplicated;
+    private int skipped;
+
+    Statistics(String processorName) {
+      this.processorName = processorName;
+    }
+
+    /**
+     * Return the count of entries that written to the registry.
+     *
+     * @return the count of registered entries
+     */
+    int getRegistered() {
+      return registered;
+    }
+
+    /**
+     * Return the count of entries that not written to the registry because these had already been registered.
+     *
+     * @return the count of deduplicated entries
+     */
+    int getDeduplicated() {
+      return deduplicated;
+    }
+
+    /**
+     * Return the count of entries that not written to the registry because these are not necessary.
+     *
+     * @return the count of skipped entries
+     */
+    int getSkipped() {
+      return skipped;
+    }
+
+    @Override
+    public String toString() {
+      return "processor: " + processorName + ", registered: " + registered + ", deduplicated: " + deduplicated
+          + ", skipped: " + skipped;
+    }
+
+  }
+
+}
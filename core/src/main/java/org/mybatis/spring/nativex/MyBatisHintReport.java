@@ -0,0 +1,277 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+/**
+ * The build-time report that shows native hints caused by each mapper and each {@code @MyBatisResourcesScan}.
+ * <p>
+ * The report is written as JSON when {@code mybatis.native.hint-report.enabled} is {@code true}, and it contains
+ * reflection types, proxy interfaces and resource files (with estimated bytes that is file size) per mapper namespace
+ * and per {@link MyBatisScannedResourcesHolder} bean. In addition, resource files and estimated bytes are reported per
+ * location pattern of {@code @MyBatisResourcesScan}. An entry that already registered by other mapper or scan is
+ * reported on both.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisHintReport {
+
+  /**
+   * The bean definition attribute name that holds the class name declaring {@code @MyBatisResourcesScan}.
+   */
+  static final String DECLARING_CLASS_ATTRIBUTE = MyBatisHintReport.class.getName() + ".declaringClass";
+
+  /**
+   * The bean definition attribute name that holds scanned resource locations per location pattern.
+   */
+  static final String RESOURCE_PATTERNS_ATTRIBUTE = MyBatisHintReport.class.getName() + ".resourcePatterns";
+
+  private static final Log LOG = LogFactory.getLog(MyBatisHintReport.class);
+  private static final String DEFAULT_LOCATION = "mybatis-native/hint-report.json";
+
+  private static final Map<NativeConfigurationRegistry, MyBatisHintReport> REPORTS = Collections
+      .synchronizedMap(new WeakHashMap<>());
+
+  private final Path location;
+  private final ClassLoader classLoader;
+  private final Map<String, Entry> mappers = new TreeMap<>();
+  private final Map<String, Entry> scans = new TreeMap<>();
+  private final Map<String, Long> estimatedBytes = new HashMap<>();
+
+  private MyBatisHintReport(Path location, ClassLoader classLoader) {
+    this.location = location;
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Return whether the hint report is enabled.
+   *
+   * @param environment
+   *          the environment
+   *
+   * @return If {@code mybatis.native.hint-report.enabled} is {@code true}, return {@code true}
+   */
+  static boolean isEnabled(Environment environment) {
+    return environment != null && environment.getProperty("mybatis.native.hint-report.enabled", Boolean.class, false);
+  }
+
+  /**
+   * Return a report for the specified registry.
+   *
+   * @param beanFactory
+   *          the bean factory for retrieving the {@link Environment}
+   * @param registry
+   *          the registry of native configuration
+   *
+   * @return a report that shared between all processors that use the same registry. If the hint report is disabled,
+   *         return {@code null}
+   */
+  static MyBatisHintReport of(ConfigurableListableBeanFactory beanFactory, NativeConfigurationRegistry registry) {
+    Environment environment = beanFactory.getBeanProvider(Environment.class).getIfAvailable();
+    if (!isEnabled(environment)) {
+      return null;
+    }
+    ClassLoader classLoader = beanFactory.getBeanClassLoader();
+    return REPORTS.computeIfAbsent(registry,
+        x -> new MyBatisHintReport(Optional.ofNullable(environment.getProperty("mybatis.native.hint-report.location"))
+            .map(Paths::get).orElseGet(() -> MyBatisBuildOutputs.resolve(DEFAULT_LOCATION, classLoader)),
+            classLoader));
+  }
+
+  /**
+   * Return a report entry for the specified mapper.
+   *
+   * @param namespace
+   *          the mapper namespace (mapper interface name or namespace of mapper xml file)
+   *
+   * @return a report entry
+   */
+  synchronized Entry mapper(String namespace) {
+    return mappers.computeIfAbsent(namespace, Entry::new);
+  }
+
+  /**
+   * Return a report entry for the specified {@link MyBatisScannedResourcesHolder} bean.
+   *
+   * @param beanName
+   *          the bean name of {@link MyBatisScannedResourcesHolder}
+   * @param beanDefinition
+   *          the bean definition of {@link MyBatisScannedResourcesHolder}
+   *
+   * @return a report entry
+   */
+  @SuppressWarnings("unchecked")
+  synchronized Entry scan(String beanName, BeanDefinition beanDefinition) {
+    return scans.computeIfAbsent(beanName, x -> {
+      Entry entry = new Entry(beanName);
+      entry.declaringClass = (String) beanDefinition.getAttribute(DECLARING_CLASS_ATTRIBUTE);
+      Map<String, Collection<String>> resourcePatterns = (Map<String, Collection<String>>) beanDefinition
+          .getAttribute(RESOURCE_PATTERNS_ATTRIBUTE);
+      if (resourcePatterns != null) {
+        resourcePatterns.forEach((pattern, locations) -> entry.resourcePatterns.put(pattern, new TreeSet<>(locations)));
+      }
+      return entry;
+    });
+  }
+
+  /**
+   * Save this report to the file.
+   */
+  synchronized void save() {
+    try {
+      Path parent = location.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try (Writer writer = Files.newBufferedWriter(location, StandardCharsets.UTF_8)) {
+        writer.write("{\n  \"mappers\" : ");
+        writeEntries(writer, mappers.values());
+        writer.write(",\n  \"scans\" : ");
+        writeEntries(writer, scans.values());
+        writer.write("\n}\n");
+      }
+      LOG.debug("Saved native hint report. location: " + location);
+    } catch (IOException e) {
+      LOG.warn("Fail saving native hint report. location: " + location, e);
+    }
+  }
+
+  private void writeEntries(Writer writer, Collection<Entry> entries) throws IOException {
+    if (entries.isEmpty()) {
+      writer.write("[ ]");
+      return;
+    }
+    writer.write("[ ");
+    for (Iterator<Entry> it = entries.iterator(); it.hasNext();) {
+      Entry entry = it.next();
+      writer.write("{\n    \"name\" : " + quote(entry.name));
+      if (entry.declaringClass != null) {
+        writer.write(",\n    \"declaringClass\" : " + quote(entry.declaringClass));
+      }
+      writer.write(",\n    \"reflectionTypes\" : " + toArray(entry.reflectionTypes.stream().map(this::quote)));
+      writer.write(",\n    \"proxyInterfaces\" : " + toArray(entry.proxyInterfaces.stream().map(this::quote)));
+      writer.write(",\n    \"resources\" : " + toArray(entry.resources.stream().map(this::toResource)));
+      writer.write(",\n    \"estimatedBytes\" : " + sumEstimatedBytes(entry.resources));
+      if (!entry.resourcePatterns.isEmpty()) {
+        writer.write(",\n    \"resourcePatterns\" : " + toArray(entry.resourcePatterns.entrySet().stream()
+            .map(x -> "{ \"pattern\" : " + quote(x.getKey()) + ", \"resources\" : " + x.getValue().size()
+                + ", \"estimatedBytes\" : " + sumEstimatedBytes(x.getValue()) + " }")));
+      }
+      writer.write("\n  }");
+      writer.write(it.hasNext() ? ", " : " ]");
+    }
+  }
+
+  private String toResource(String location) {
+    return "{ \"location\" : " + quote(location) + ", \"estimatedBytes\" : " + estimateBytes(location) + " }";
+  }
+
+  private long sumEstimatedBytes(Collection<String> locations) {
+    return locations.stream().mapToLong(this::estimateBytes).sum();
+  }
+
+  private long estimateBytes(String location) {
+    return estimatedBytes.computeIfAbsent(location, x -> {
+      // A location is a classpath relative path usually, but it may be an url when it is out of the classpath root
+      Resource resource = new DefaultResourceLoader(classLoader).getResource(x);
+      try {
+        // A resource that does not exist is not included in a native image
+        return resource.exists() ? resource.contentLength() : 0L;
+      } catch (IOException e) {
+        LOG.debug("Fail estimating bytes of resource. location: " + x, e);
+        return 0L;
+      }
+    });
+  }
+
+  private String toArray(Stream<String> values) {
+    String joined = values.collect(Collectors.joining(",\n      "));
+    return joined.isEmpty() ? "[ ]" : "[\n      " + joined + "\n    ]";
+  }
+
+  private String quote(String value) {
+    StringBuilder sb = new StringBuilder("\"");
+    for (char c : value.toCharArray()) {
+      if (c == '"' || c == '\\') {
+        sb.append('\\').append(c);
+      } else if (c < 0x20) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.append('"').toString();
+  }
+
+  /**
+   * The report entry that holds native hints caused by a mapper or a {@code @MyBatisResourcesScan}.
+   */
+  static class Entry {
+
+    private final String name;
+    private String declaringClass;
+    private final Set<String> reflectionTypes = new TreeSet<>();
+    private final Set<String> proxyInterfaces = new TreeSet<>();
+    private final Set<String> resources = new TreeSet<>();
+    private final Map<String, Set<String>> resourcePatterns = new TreeMap<>();
+
+    private Entry(String name) {
+      this.name = name;
+    }
+
+    synchronized void addReflectionType(Class<?> type) {
+      reflectionTypes.add(type.getName());
+    }
+
+    synchronized void addProxyInterfaces(Class<?>... interfaces) {
+      proxyInterfaces.add(Stream.of(interfaces).map(Class::getName).collect(Collectors.joining(",")));
+    }
+
+    synchronized void addResource(String location) {
+      resources.add(location);
+    }
+
+  }
+
+}
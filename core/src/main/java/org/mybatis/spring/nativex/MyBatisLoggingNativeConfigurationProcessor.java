@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_CLASSES;
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_CONSTRUCTORS;
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_FIELDS;
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_METHODS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_CLASSES;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_CONSTRUCTORS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_FIELDS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_METHODS;
+
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.logging.commons.JakartaCommonsLoggingImpl;
+import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
+import org.apache.ibatis.logging.log4j2.Log4j2Impl;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.logging.slf4j.Slf4jImpl;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.BeanFactoryNativeConfigurationProcessor;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.nativex.hint.TypeAccess;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registers the reflection hint for the MyBatis logging implementation that used at runtime.
+ * <p>
+ * The implementation is detected at build time with the same order as the {@link org.apache.ibatis.logging.LogFactory}
+ * (SLF4J, Apache Commons Logging, Log4j 2, Log4j, JDK logging) by checking whether the logging library is on the
+ * classpath. The implementation that specified by the {@code mybatis.configuration.log-impl} property or the
+ * {@code logImpl} setting of the {@code mybatis.config-location} file is registered too. Because other
+ * implementations are not registered, the {@code LogFactory} never instantiates them at startup time.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+public class MyBatisLoggingNativeConfigurationProcessor implements BeanFactoryNativeConfigurationProcessor {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisLoggingNativeConfigurationProcessor.class);
+
+  private static final TypeAccess[] TYPE_ACCESSES = { PUBLIC_CONSTRUCTORS, PUBLIC_CLASSES, PUBLIC_FIELDS,
+      PUBLIC_METHODS, DECLARED_CLASSES, DECLARED_CONSTRUCTORS, DECLARED_FIELDS, DECLARED_METHODS };
+
+  private static final Map<String, String> CANDIDATES;
+
+  static {
+    // Same order as the LogFactory (key: log implementation, value: the class that indicates a logging library)
+    Map<String, String> candidates = new LinkedHashMap<>();
+    candidates.put(Slf4jImpl.class.getName(), "org.slf4j.Logger");
+    candidates.put(JakartaCommonsLoggingImpl.class.getName(), "org.apache.commons.logging.Log");
+    candidates.put(Log4j2Impl.class.getName(), "org.apache.logging.log4j.Logger");
+    candidates.put("org.apache.ibatis.logging.log4j.Log4jImpl", "org.apache.log4j.Logger");
+    candidates.put(Jdk14LoggingImpl.class.getName(), "java.util.logging.Logger");
+    CANDIDATES = candidates;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void process(ConfigurableListableBeanFactory beanFactory, NativeConfigurationRegistry registry) {
+    ClassLoader classLoader = beanFactory.getBeanClassLoader();
+    Set<Class<?>> logImpls = new LinkedHashSet<>();
+    Class<?> detectedLogImpl = detectLogImpl(classLoader);
+    if (detectedLogImpl != null) {
+      logImpls.add(detectedLogImpl);
+    }
+    Environment environment = beanFactory.getBeanProvider(Environment.class).getIfAvailable();
+    if (environment != null) {
+      addConfiguredLogImpl(environment.getProperty("mybatis.configuration.log-impl"), logImpls);
+      addConfiguredLogImpl(resolveLogImplSetting(environment.getProperty("mybatis.config-location"), classLoader),
+          logImpls);
+    }
+    MyBatisHintCollector hints = MyBatisHintCollector.of(beanFactory, registry, getClass());
+    logImpls.forEach(logImpl -> hints.registerType(logImpl, TYPE_ACCESSES));
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Registered log implementations: " + logImpls);
+    }
+    hints.complete();
+  }
+
+  /**
+   * Return the log implementation that selected by the {@link org.apache.ibatis.logging.LogFactory} at runtime.
+   *
+   * @param classLoader
+   *          the class loader for detecting logging libraries
+   *
+   * @return the log implementation. If not detected, return the {@link NoLoggingImpl}
+   */
+  static Class<?> detectLogImpl(ClassLoader classLoader) {
+    for (Map.Entry<String, String> candidate : CANDIDATES.entrySet()) {
+      if (ClassUtils.isPresent(candidate.getValue(), classLoader)
+          && ClassUtils.isPresent(candidate.getKey(), classLoader)) {
+        return ClassUtils.resolveClassName(candidate.getKey(), classLoader);
+      }
+    }
+    return NoLoggingImpl.class;
+  }
+
+  private void addConfiguredLogImpl(String logImpl, Set<Class<?>> logImpls) {
+    if (!StringUtils.hasText(logImpl)) {
+      return;
+    }
+    try {
+      // Resolve a built-in alias(e.g. SLF4J, STDOUT_LOGGING) or a FQCN
+      logImpls.add(new Configuration().getTypeAliasRegistry().resolveAlias(logImpl.trim()));
+    } catch (RuntimeException e) {
+      LOG.debug("Cannot resolve the log implementation: " + logImpl, e);
+    }
+  }
+
+  private String resolveLogImplSetting(String configLocation, ClassLoader classLoader) {
+    if (!StringUtils.hasText(configLocation)) {
+      return null;
+    }
+    Resource resource = new DefaultResourceLoader(classLoader).getResource(configLocation.trim());
+    if (!resource.exists()) {
+      return null;
+    }
+    try (InputStream in = resource.getInputStream()) {
+      XNode settings = new XPathParser(in, false, null, new XMLMapperEntityResolver())
+          .evalNode("/configuration/settings");
+      if (settings == null) {
+        return null;
+      }
+      return settings.getChildren().stream().filter(setting -> "logImpl".equals(setting.getStringAttribute("name")))
+          .map(setting -> setting.getStringAttribute("value")).findFirst().orElse(null);
+    } catch (Exception e) {
+      LOG.debug("Cannot read the logImpl setting from " + configLocation, e);
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,346 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.apache.ibatis.builder.ParameterExpression;
+import org.apache.ibatis.builder.xml.XMLIncludeTransformer;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
+import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMap;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.parsing.GenericTokenParser;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * The compiler that converts a mapper xml file to the compiled mapper at build time.
+ *
+ * @author Kazuki Shimizu
+ * @see MyBatisCompiledMappers
+ */
+final class MyBatisMapperCompiler {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisMapperCompiler.class);
+
+  private static final String UNSUPPORTED_ELEMENTS = "/mapper/cache | /mapper/cache-ref | /mapper/parameterMap"
+      + " | //selectKey | //*[@databaseId] | //*[@lang]";
+
+  private MyBatisMapperCompiler() {
+    // NOP
+  }
+
+  /**
+   * Compile the specified mapper xml file.
+   *
+   * @param location
+   *          the location of mapper xml file under classpath
+   * @param typeAliasesClasses
+   *          type aliases for resolving type
+   * @param typeHandlerClasses
+   *          type handlers for resolving type handler
+   *
+   * @return the compiled mapper. If a mapper xml file cannot be compiled, return {@code null}
+   */
+  static String compile(String location, Set<Class<?>> typeAliasesClasses, Set<Class<?>> typeHandlerClasses) {
+    ClassPathResource resource = new ClassPathResource(location);
+    try {
+      String namespace;
+      Map<String, XNode> resultMapNodes;
+      Map<String, XNode> statementNodes;
+      try (InputStream in = resource.getInputStream()) {
+        XPathParser parser = new XPathParser(in, true, null, new XMLMapperEntityResolver());
+        if (!parser.evalNodes(UNSUPPORTED_ELEMENTS).isEmpty()) {
+          LOG.debug("Skip compiling mapper xml file because it contains unsupported elements. location: " + location);
+          return null;
+        }
+        XNode mapperNode = parser.evalNode("/mapper");
+        namespace = mapperNode.getStringAttribute("namespace");
+        resultMapNodes = mapperNode.evalNodes("resultMap").stream().filter(x -> x.getStringAttribute("id") != null)
+            .collect(Collectors.toMap(x -> applyNamespace(namespace, x.getStringAttribute("id"), false),
+                Function.identity()));
+        statementNodes = mapperNode.evalNodes("select|insert|update|delete").stream().collect(
+            Collectors.toMap(x -> mapperNode.getStringAttribute("namespace") + "." + x.getStringAttribute("id"),
+                Function.identity()));
+      }
+
+      Configuration configuration = new Configuration() {
+        @Override
+        public <T> void addMapper(Class<T> type) {
+          // Does not parse mapper annotations at build time
+        }
+      };
+      typeAliasesClasses.forEach(configuration.getTypeAliasRegistry()::registerAlias);
+      typeHandlerClasses.forEach(configuration.getTypeHandlerRegistry()::register);
+      try (InputStream in = resource.getInputStream()) {
+        new XMLMapperBuilder(in, configuration, resource.toString(), configuration.getSqlFragments()).parse();
+      }
+      if (!configuration.getIncompleteStatements().isEmpty() || !configuration.getIncompleteResultMaps().isEmpty()) {
+        LOG.debug("Skip compiling mapper xml file because it refers to other mapper. location: " + location);
+        return null;
+      }
+
+      Collection<ResultMap> resultMaps = distinct(configuration.getResultMaps(), ResultMap::getId);
+      Collection<MappedStatement> statements = distinct(configuration.getMappedStatements(), MappedStatement::getId);
+      if (!resultMaps.stream().allMatch(x -> isSupported(x, configuration))
+          || !statements.stream().allMatch(x -> isSupported(x, configuration))) {
+        LOG.debug("Skip compiling mapper xml file because it contains unsupported features. location: " + location);
+        return null;
+      }
+
+      MapperBuilderAssistant builderAssistant = new MapperBuilderAssistant(configuration, resource.toString());
+      builderAssistant.setCurrentNamespace(namespace);
+      XMLIncludeTransformer includeTransformer = new XMLIncludeTransformer(configuration, builderAssistant);
+      Map<String, List<Boolean>> explicitTypeHandlers = new TreeMap<>();
+      for (MappedStatement statement : statements) {
+        XNode statementNode = statementNodes.get(statement.getId());
+        includeTransformer.applyIncludes(statementNode.getNode());
+        List<Boolean> explicitFlags = getExplicitTypeHandlerFlags(statementNode);
+        if (explicitFlags.size() != statement.getBoundSql(null).getParameterMappings().size()) {
+          LOG.debug("Skip compiling mapper xml file because parameter mappings cannot be resolved. location: "
+              + location);
+          return null;
+        }
+        explicitTypeHandlers.put(statement.getId(), explicitFlags);
+      }
+
+      MyBatisCompiledMappers.Writer writer = new MyBatisCompiledMappers.Writer();
+      writer.write(location).write(namespace);
+      writer.write(resultMaps.size());
+      resultMaps.forEach(x -> writeResultMap(writer, x, resultMapNodes, namespace));
+      writer.write(statements.size());
+      statements.forEach(
+          x -> writeMappedStatement(writer, x, statementNodes.get(x.getId()), explicitTypeHandlers.get(x.getId())));
+      return writer.toString();
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Skip compiling mapper xml file because it cannot be parsed. location: " + location, e);
+      return null;
+    }
+  }
+
+  /**
+   * Verify that sql fragments of compiled mapper xml files are not included from other mapper xml files.
+   * <p>
+   * Sql fragments of a compiled mapper xml file are not registered to the MyBatis configuration at startup time, so an
+   * {@code <include>} that refers to them from other mapper xml file cannot be resolved.
+   * </P>
+   *
+   * @param locations
+   *          locations of all mapper xml files under classpath
+   * @param compiledLocations
+   *          locations of compiled mapper xml files under classpath
+   *
+   * @throws IllegalStateException
+   *           if a sql fragment of compiled mapper xml file is included from other mapper xml file
+   */
+  static void verifyFragmentReferences(Collection<String> locations, Collection<String> compiledLocations) {
+    Map<String, String> fragmentLocations = new HashMap<>();
+    for (String location : compiledLocations) {
+      XNode mapperNode = parseMapper(location);
+      if (mapperNode != null) {
+        String namespace = mapperNode.getStringAttribute("namespace");
+        mapperNode.evalNodes("sql").forEach(x -> fragmentLocations
+            .put(applyNamespace(namespace, x.getStringAttribute("id"), false), location));
+      }
+    }
+    if (fragmentLocations.isEmpty()) {
+      return;
+    }
+    for (String location : locations) {
+      XNode mapperNode = parseMapper(location);
+      if (mapperNode == null) {
+        continue;
+      }
+      String namespace = mapperNode.getStringAttribute("namespace");
+      for (XNode includeNode : mapperNode.evalNodes(".//include")) {
+        String refid = includeNode.getStringAttribute("refid");
+        if (refid == null || refid.contains("${")) {
+          // Cannot resolve a refid that contains placeholders at build time
+          continue;
+        }
+        String fragmentLocation = fragmentLocations.get(applyNamespace(namespace, refid, true));
+        if (fragmentLocation != null && !fragmentLocation.equals(location)) {
+          throw new IllegalStateException("The sql fragment '" + refid + "' of compiled mapper xml file '"
+              + fragmentLocation + "' is included from '" + location + "'. Sql fragments of compiled mapper xml file"
+              + " cannot be included from other mapper xml file, please move the sql fragment or disable"
+              + " 'compileMappers' of @MyBatisResourcesScan.");
+        }
+      }
+    }
+  }
+
+  private static XNode parseMapper(String location) {
+    try (InputStream in = new ClassPathResource(location).getInputStream()) {
+      return new XPathParser(in, true, null, new XMLMapperEntityResolver()).evalNode("/mapper");
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Skip verifying mapper xml file because it cannot be parsed. location: " + location, e);
+      return null;
+    }
+  }
+
+  private static String applyNamespace(String namespace, String id, boolean isReference) {
+    // Same rule as MapperBuilderAssistant#applyCurrentNamespace
+    if (isReference ? id.contains(".") : id.startsWith(namespace + ".")) {
+      return id;
+    }
+    return namespace + "." + id;
+  }
+
+  private static <T> Collection<T> distinct(Collection<T> values, Function<T, String> idResolver) {
+    // Configuration holds same value using both full id and short id
+    Map<String, T> distinctValues = new TreeMap<>();
+    values.forEach(x -> distinctValues.putIfAbsent(idResolver.apply(x), x));
+    return distinctValues.values();
+  }
+
+  private static boolean isSupported(ResultMap resultMap, Configuration configuration) {
+    return resultMap.getDiscriminator() == null && !resultMap.hasNestedResultMaps() && !resultMap.hasNestedQueries()
+        && resultMap.getResultMappings().stream().allMatch(x -> isSupported(x, configuration));
+  }
+
+  private static boolean isSupported(ResultMapping resultMapping, Configuration configuration) {
+    return resultMapping.getNestedResultMapId() == null && resultMapping.getNestedQueryId() == null
+        && resultMapping.getResultSet() == null && resultMapping.getForeignColumn() == null
+        && resultMapping.getColumnPrefix() == null && resultMapping.getNotNullColumns().isEmpty()
+        && resultMapping.getComposites().isEmpty() && resultMapping.getJavaType() != null && !resultMapping.isLazy();
+  }
+
+  private static boolean isSupported(MappedStatement statement, Configuration configuration) {
+    String parameterMapId = statement.getParameterMap().getId();
+    return statement.getSqlSource() instanceof RawSqlSource && statement.getCache() == null
+        && statement.getLang().getClass() == XMLLanguageDriver.class
+        && (statement.getKeyGenerator() instanceof NoKeyGenerator
+            || statement.getKeyGenerator() instanceof Jdbc3KeyGenerator)
+        && (isDefault(statement.getParameterMap()) || parameterMapId.equals(statement.getId() + "-Inline"))
+        && statement.getResultMaps().stream().allMatch(x -> isInline(x, statement) || isSupported(x, configuration))
+        && statement.getBoundSql(null).getParameterMappings().stream().allMatch(x -> x.getResultMapId() == null
+            && x.getExpression() == null);
+  }
+
+  private static boolean isDefault(ParameterMap parameterMap) {
+    return "defaultParameterMap".equals(parameterMap.getId());
+  }
+
+  private static boolean isInline(ResultMap resultMap, MappedStatement statement) {
+    return resultMap.getId().equals(statement.getId() + "-Inline");
+  }
+
+  private static void writeResultMap(MyBatisCompiledMappers.Writer writer, ResultMap resultMap,
+      Map<String, XNode> resultMapNodes, String namespace) {
+    writer.write(resultMap.getId()).write(resultMap.getType()).write(resultMap.getAutoMapping());
+    List<ResultMapping> resultMappings = resultMap.getResultMappings();
+    writer.write(resultMappings.size());
+    for (ResultMapping resultMapping : resultMappings) {
+      // Write a type handler only when it is specified explicitly for keeping it even if other type handler is
+      // registered for same java type at runtime
+      boolean explicitTypeHandler = hasExplicitTypeHandler(resultMapNodes.get(resultMap.getId()), resultMapping,
+          resultMapNodes, namespace);
+      writer.write(resultMapping.getProperty()).write(resultMapping.getColumn()).write(resultMapping.getJavaType())
+          .write(resultMapping.getJdbcType())
+          .write(explicitTypeHandler ? resultMapping.getTypeHandler().getClass() : null);
+      writer.write(resultMapping.getFlags().size());
+      resultMapping.getFlags().forEach(writer::write);
+    }
+  }
+
+  private static void writeMappedStatement(MyBatisCompiledMappers.Writer writer, MappedStatement statement,
+      XNode statementNode, List<Boolean> explicitTypeHandlers) {
+    BoundSql boundSql = statement.getBoundSql(null);
+    writer.write(statement.getId()).write(statement.getSqlCommandType()).write(statement.getStatementType())
+        .write(boundSql.getSql()).write(isDefault(statement.getParameterMap()) ? null
+            : statement.getParameterMap().getType());
+    writer.write(statement.getResultMaps().size());
+    for (ResultMap resultMap : statement.getResultMaps()) {
+      writer.write(resultMap.getId()).write(isInline(resultMap, statement) ? resultMap.getType() : null);
+    }
+    // Write null when an attribute is omitted for applying a default value of runtime configuration
+    writer.write(statementNode.getStringAttribute("resultSetType") == null ? null : statement.getResultSetType())
+        .write(statement.getFetchSize()).write(statement.getTimeout()).write(statement.isFlushCacheRequired())
+        .write(statement.isUseCache()).write(statement.isResultOrdered())
+        .write(statementNode.getStringAttribute("useGeneratedKeys") == null ? null
+            : statement.getKeyGenerator() instanceof Jdbc3KeyGenerator)
+        .write(join(statement.getKeyProperties())).write(join(statement.getKeyColumns()))
+        .write(join(statement.getResultSets()));
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    writer.write(parameterMappings.size());
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      writer.write(parameterMapping.getProperty()).write(parameterMapping.getMode())
+          .write(parameterMapping.getJavaType()).write(parameterMapping.getJdbcType())
+          .write(parameterMapping.getNumericScale())
+          .write(explicitTypeHandlers.get(i) ? parameterMapping.getTypeHandler().getClass() : null)
+          .write(parameterMapping.getJdbcTypeName());
+    }
+  }
+
+  private static boolean hasExplicitTypeHandler(XNode resultMapNode, ResultMapping resultMapping,
+      Map<String, XNode> resultMapNodes, String namespace) {
+    // Find a mapping element from the result map and extended result maps as same as MapperBuilderAssistant
+    for (XNode current = resultMapNode; current != null; current = Optional
+        .ofNullable(current.getStringAttribute("extends")).map(x -> applyNamespace(namespace, x, true))
+        .map(resultMapNodes::get).orElse(null)) {
+      for (XNode mappingNode : current.evalNodes("id|result|constructor/idArg|constructor/arg")) {
+        String property = mappingNode.getStringAttribute("property", mappingNode.getStringAttribute("name"));
+        if (Objects.equals(property, resultMapping.getProperty())
+            && Objects.equals(mappingNode.getStringAttribute("column"), resultMapping.getColumn())) {
+          return mappingNode.getStringAttribute("typeHandler") != null;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static List<Boolean> getExplicitTypeHandlerFlags(XNode statementNode) {
+    // Parameter mappings of static SQL are built in order of '#{...}' as same as SqlSourceBuilder
+    List<Boolean> explicitFlags = new ArrayList<>();
+    new GenericTokenParser("#{", "}", content -> {
+      explicitFlags.add(new ParameterExpression(content).containsKey("typeHandler"));
+      return "?";
+    }).parse(statementNode.getNode().getTextContent());
+    return explicitFlags;
+  }
+
+  private static String join(String[] values) {
+    return values == null ? null : String.join(",", values);
+  }
+
+}
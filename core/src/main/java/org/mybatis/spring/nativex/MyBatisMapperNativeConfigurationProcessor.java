@@ -28,34 +28,58 @@ import static org.springframework.nativex.hint.TypeAccess.QUERY_DECLARED_METHODS
 import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_CONSTRUCTORS;
 import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_METHODS;
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.apache.ibatis.annotations.DeleteProvider;
 import org.apache.ibatis.annotations.InsertProvider;
 import org.apache.ibatis.annotations.SelectProvider;
 import org.apache.ibatis.annotations.UpdateProvider;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.apache.ibatis.type.TypeException;
 import org.mybatis.spring.mapper.MapperFactoryBean;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.BeanFactoryNativeConfigurationProcessor;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
-import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeProxyEntry;
-import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeResourcesEntry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
 import org.springframework.nativex.hint.TypeAccess;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ReflectionUtils;
 
 /**
  * Finds and registers reflection hints for all scanned mappers in the beanFactory.
+ * <p>
+ * Mappers that declared only in mapper xml files scanned by {@code @MyBatisResourcesScan} are also registered using
+ * types that referred from mapper xml files. In addition, types of 2nd level cache that declared on mapper interfaces
+ * and mapper xml files are registered.
+ * </P>
  *
  * @author Kazuki Shimizu
  * @author Josh Long
  */
 public class MyBatisMapperNativeConfigurationProcessor implements BeanFactoryNativeConfigurationProcessor {
 
+  private static final Log LOG = LogFactory.getLog(MyBatisMapperNativeConfigurationProcessor.class);
+
   private static final String MAPPER_FACTORY_BEAN = "org.mybatis.spring.mapper.MapperFactoryBean";
 
   private static final TypeAccess[] TYPE_ACCESSES = { PUBLIC_CONSTRUCTORS, PUBLIC_CLASSES, PUBLIC_FIELDS,
@@ -67,53 +91,165 @@ public class MyBatisMapperNativeConfigurationProcessor implements BeanFactoryNat
    */
   @Override
   public void process(ConfigurableListableBeanFactory beanFactory, NativeConfigurationRegistry registry) {
+    MyBatisHintCollector hints = MyBatisHintCollector.of(beanFactory, registry, getClass());
+    boolean precise = MyBatisReflectionHints.isPrecise(beanFactory);
+    Set<Class<?>> mapperInterfaceTypes = new HashSet<>();
+    List<BeanDefinition> holderDefinitions = Stream
+        .of(beanFactory.getBeanNamesForType(MyBatisScannedResourcesHolder.class))
+        .map(beanFactory::getBeanDefinition).collect(Collectors.toList());
+    Set<String> mapperLocations = holderDefinitions.stream()
+        .flatMap(x -> MyBatisScannedResourcesHolder.getPropertyValues(x, "mapperLocations").stream())
+        .map(String.class::cast).collect(Collectors.toCollection(TreeSet::new));
+    TypeAliasRegistry typeAliasRegistry = new Configuration().getTypeAliasRegistry();
+    holderDefinitions.forEach(x -> registerTypeAliases(x, typeAliasRegistry));
     if (ClassUtils.isPresent(MAPPER_FACTORY_BEAN, beanFactory.getBeanClassLoader())) {
+      Set<String> excludedResourceLocations = getExcludedResourceLocations(holderDefinitions);
       String[] beanNames = beanFactory.getBeanNamesForType(MapperFactoryBean.class);
       for (String beanName : beanNames) {
         BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName.substring(1));
         PropertyValue mapperInterface = beanDefinition.getPropertyValues().getPropertyValue("mapperInterface");
         if (mapperInterface != null && mapperInterface.getValue() != null) {
           Class<?> mapperInterfaceType = (Class<?>) mapperInterface.getValue();
-          registerReflectionTypeIfNecessary(mapperInterfaceType, registry);
-          registry.proxy().add(NativeProxyEntry.ofInterfaces(mapperInterfaceType));
-          registry.resources()
-              .add(NativeResourcesEntry.of(mapperInterfaceType.getName().replace('.', '/').concat(".xml")));
-          registerMapperRelationships(mapperInterfaceType, registry);
+          MyBatisHintCollector mapperHints = hints.forMapper(mapperInterfaceType.getName());
+          registerMapperInterface(mapperInterfaceType, mapperInterfaceTypes, mapperHints, precise);
+          String mapperLocation = mapperInterfaceType.getName().replace('.', '/').concat(".xml");
+          if (!excludedResourceLocations.contains(mapperLocation)) {
+            mapperHints.registerResource(mapperLocation);
+            if (!mapperLocations.contains(mapperLocation)) {
+              registerCacheTypes(new ClassPathResource(mapperLocation, beanFactory.getBeanClassLoader()),
+                  typeAliasRegistry, hints);
+            }
+          }
         }
       }
     }
+    registerMapperXmlTypes(mapperLocations, typeAliasRegistry, mapperInterfaceTypes, hints, precise);
+    registerConfiguredMapperXmlCacheTypes(beanFactory, typeAliasRegistry, hints);
+    hints.complete();
+  }
+
+  private void registerMapperInterface(Class<?> mapperInterfaceType, Set<Class<?>> mapperInterfaceTypes,
+      MyBatisHintCollector hints, boolean precise) {
+    if (mapperInterfaceTypes.add(mapperInterfaceType)) {
+      registerReflectionTypeIfNecessary(mapperInterfaceType, hints);
+      hints.registerProxy(mapperInterfaceType);
+      MyBatisCacheHints.registerCacheTypes(mapperInterfaceType, hints);
+      registerMapperRelationships(mapperInterfaceType, hints, precise);
+    }
+  }
+
+  private void registerMapperXmlTypes(Set<String> mapperLocations, TypeAliasRegistry typeAliasRegistry,
+      Set<Class<?>> mapperInterfaceTypes, MyBatisHintCollector hints, boolean precise) {
+    // Mappers that declared only in mapper xml files (e.g. using SqlSession#getMapper or statement id directly)
+    // does not have MapperFactoryBean, therefore resolves types from attributes of scanned mapper xml files
+    for (String mapperLocation : mapperLocations) {
+      XNode mapperNode = MyBatisMapperXmlTypes.parse(mapperLocation);
+      if (mapperNode == null) {
+        continue;
+      }
+      MyBatisHintCollector mapperHints = hints.forMapper(mapperNode.getStringAttribute("namespace", mapperLocation));
+      Class<?> namespaceType = MyBatisMapperXmlTypes.resolveNamespaceType(mapperNode);
+      if (namespaceType != null && namespaceType.isInterface()) {
+        registerMapperInterface(namespaceType, mapperInterfaceTypes, mapperHints, precise);
+      } else if (namespaceType != null) {
+        registerReflectionTypeIfNecessary(namespaceType, mapperHints);
+      }
+      MyBatisMapperXmlTypes.resolveTypes(mapperNode, typeAliasRegistry)
+          .forEach(x -> registerMappingTypeIfNecessary(x, mapperHints, precise));
+      MyBatisCacheHints.registerCacheTypes(mapperNode, typeAliasRegistry, mapperHints);
+    }
   }
 
-  private void registerMapperRelationships(Class<?> mapperInterfaceType, NativeConfigurationRegistry registry) {
+  private void registerConfiguredMapperXmlCacheTypes(ConfigurableListableBeanFactory beanFactory,
+      TypeAliasRegistry typeAliasRegistry, MyBatisHintCollector hints) {
+    // Mapper xml files that specified by the mybatis-spring-boot-starter are loaded without the scanning
+    Environment environment = beanFactory.getBeanProvider(Environment.class).getIfAvailable();
+    String[] locationPatterns = environment == null ? null
+        : environment.getProperty("mybatis.mapper-locations", String[].class);
+    if (locationPatterns == null) {
+      return;
+    }
+    ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver(
+        beanFactory.getBeanClassLoader());
+    for (String locationPattern : locationPatterns) {
+      try {
+        for (Resource resource : resourcePatternResolver.getResources(locationPattern.trim())) {
+          registerCacheTypes(resource, typeAliasRegistry, hints);
+        }
+      } catch (IOException e) {
+        LOG.debug("Fail resolving mapper xml files. location pattern: " + locationPattern, e);
+      }
+    }
+  }
+
+  private void registerCacheTypes(Resource mapperResource, TypeAliasRegistry typeAliasRegistry,
+      MyBatisHintCollector hints) {
+    XNode mapperNode = mapperResource.exists() ? MyBatisMapperXmlTypes.parse(mapperResource) : null;
+    if (mapperNode != null) {
+      MyBatisCacheHints.registerCacheTypes(mapperNode, typeAliasRegistry,
+          hints.forMapper(mapperNode.getStringAttribute("namespace", mapperResource.getDescription())));
+    }
+  }
+
+  private void registerTypeAliases(BeanDefinition holderDefinition, TypeAliasRegistry typeAliasRegistry) {
+    List<?> names = new ArrayList<>(
+        MyBatisScannedResourcesHolder.getPropertyValues(holderDefinition, "typeAliasNames"));
+    List<?> types = new ArrayList<>(
+        MyBatisScannedResourcesHolder.getPropertyValues(holderDefinition, "typeAliasTypes"));
+    for (int i = 0; i < types.size(); i++) {
+      try {
+        typeAliasRegistry.registerAlias((String) names.get(i), (Class<?>) types.get(i));
+      } catch (TypeException e) {
+        LOG.debug("Fail registering type alias for resolving types of mapper xml file.", e);
+      }
+    }
+  }
+
+  private Set<String> getExcludedResourceLocations(List<BeanDefinition> holderDefinitions) {
+    return holderDefinitions.stream()
+        .flatMap(x -> MyBatisScannedResourcesHolder.getPropertyValues(x, "excludedResourceLocations").stream())
+        .map(String.class::cast).collect(Collectors.toSet());
+  }
+
+  private void registerMapperRelationships(Class<?> mapperInterfaceType, MyBatisHintCollector hints,
+      boolean precise) {
     Method[] methods = ReflectionUtils.getAllDeclaredMethods(mapperInterfaceType);
     for (Method method : methods) {
       if (method.getDeclaringClass() != Object.class) {
         ReflectionUtils.makeAccessible(method);
-        registerSqlProviderTypes(method, registry, SelectProvider.class, SelectProvider::value, SelectProvider::type);
-        registerSqlProviderTypes(method, registry, InsertProvider.class, InsertProvider::value, InsertProvider::type);
-        registerSqlProviderTypes(method, registry, UpdateProvider.class, UpdateProvider::value, UpdateProvider::type);
-        registerSqlProviderTypes(method, registry, DeleteProvider.class, DeleteProvider::value, DeleteProvider::type);
+        registerSqlProviderTypes(method, hints, SelectProvider.class, SelectProvider::value, SelectProvider::type);
+        registerSqlProviderTypes(method, hints, InsertProvider.class, InsertProvider::value, InsertProvider::type);
+        registerSqlProviderTypes(method, hints, UpdateProvider.class, UpdateProvider::value, UpdateProvider::type);
+        registerSqlProviderTypes(method, hints, DeleteProvider.class, DeleteProvider::value, DeleteProvider::type);
         Class<?> returnType = MyBatisMapperTypeUtils.resolveReturnClass(mapperInterfaceType, method);
-        registerReflectionTypeIfNecessary(returnType, registry);
+        registerMappingTypeIfNecessary(returnType, hints, precise);
         MyBatisMapperTypeUtils.resolveParameterClasses(mapperInterfaceType, method)
-            .forEach(x -> registerReflectionTypeIfNecessary(x, registry));
+            .forEach(x -> registerMappingTypeIfNecessary(x, hints, precise));
       }
     }
   }
 
   @SafeVarargs
-  private <T extends Annotation> void registerSqlProviderTypes(Method method, NativeConfigurationRegistry registry,
+  private <T extends Annotation> void registerSqlProviderTypes(Method method, MyBatisHintCollector hints,
       Class<T> annotationType, Function<T, Class<?>>... providerTypeResolvers) {
     for (T annotation : method.getAnnotationsByType(annotationType)) {
       for (Function<T, Class<?>> providerTypeResolver : providerTypeResolvers) {
-        registerReflectionTypeIfNecessary(providerTypeResolver.apply(annotation), registry);
+        registerReflectionTypeIfNecessary(providerTypeResolver.apply(annotation), hints);
       }
     }
   }
 
-  private void registerReflectionTypeIfNecessary(Class<?> type, NativeConfigurationRegistry registry) {
-    if (!type.isPrimitive() && !type.getName().startsWith("java")) {
-      registry.reflection().forType(type).withAccess(TYPE_ACCESSES);
+  private void registerReflectionTypeIfNecessary(Class<?> type, MyBatisHintCollector hints) {
+    if (!hints.skipIfUnnecessary(type)) {
+      hints.registerType(type, TYPE_ACCESSES);
+    }
+  }
+
+  private void registerMappingTypeIfNecessary(Class<?> type, MyBatisHintCollector hints, boolean precise) {
+    if (!precise) {
+      registerReflectionTypeIfNecessary(type, hints);
+    } else if (!hints.skipIfUnnecessary(type)) {
+      MyBatisReflectionHints.registerPropertyMembers(type, hints);
     }
   }
 
@@ -0,0 +1,161 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.builder.xml.XMLMapperEntityResolver;
+import org.apache.ibatis.parsing.XNode;
+import org.apache.ibatis.parsing.XPathParser;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The utility class for resolving types that referred from mapper xml file.
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisMapperXmlTypes {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisMapperXmlTypes.class);
+  private static final String[] TYPE_ATTRIBUTES = { "resultType", "parameterType", "javaType", "ofType",
+      "typeHandler" };
+
+  private MyBatisMapperXmlTypes() {
+    // NOP
+  }
+
+  /**
+   * Parse a mapper xml file.
+   *
+   * @param location
+   *          the location of mapper xml file under classpath
+   *
+   * @return the mapper node. If a mapper xml file cannot be parsed, return {@code null}
+   */
+  static XNode parse(String location) {
+    return parse(new ClassPathResource(location));
+  }
+
+  /**
+   * Parse a mapper xml file.
+   *
+   * @param resource
+   *          the resource of mapper xml file
+   *
+   * @return the mapper node. If a mapper xml file cannot be parsed, return {@code null}
+   */
+  static XNode parse(Resource resource) {
+    try (InputStream in = resource.getInputStream()) {
+      return new XPathParser(in, false, null, new XMLMapperEntityResolver()).evalNode("/mapper");
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Fail parsing mapper xml file. location: " + resource, e);
+      return null;
+    }
+  }
+
+  /**
+   * Resolve the type that specified as namespace of mapper xml file.
+   *
+   * @param mapperNode
+   *          the mapper node
+   *
+   * @return the namespace type. If a namespace is not class name, return {@code null}
+   */
+  static Class<?> resolveNamespaceType(XNode mapperNode) {
+    String namespace = mapperNode.getStringAttribute("namespace");
+    return namespace == null ? null : resolveClass(namespace);
+  }
+
+  /**
+   * Resolve types that specified on attributes of mapper xml file.
+   * <p>
+   * Target attributes are {@code resultType}, {@code parameterType}, {@code javaType}, {@code ofType},
+   * {@code typeHandler} and {@code type} of {@code <resultMap>} and {@code <parameterMap>}. A type alias is resolved
+   * using the specified registry, and a component type is returned instead of an array type.
+   * </P>
+   *
+   * @param mapperNode
+   *          the mapper node
+   * @param typeAliasRegistry
+   *          the type alias registry for resolving type alias
+   *
+   * @return resolved types that sorted by class name
+   */
+  static Set<Class<?>> resolveTypes(XNode mapperNode, TypeAliasRegistry typeAliasRegistry) {
+    Set<Class<?>> types = new TreeSet<>(Comparator.comparing(Class::getName));
+    collectTypeNames(mapperNode, name -> {
+      Class<?> type = typeAliasRegistry.getTypeAliases().get(name.toLowerCase(Locale.ENGLISH));
+      if (type == null) {
+        type = resolveClass(name);
+      }
+      while (type != null && type.isArray()) {
+        type = type.getComponentType();
+      }
+      if (type != null) {
+        types.add(type);
+      }
+    });
+    return types;
+  }
+
+  private static void collectTypeNames(XNode node, Consumer<String> consumer) {
+    for (String attribute : TYPE_ATTRIBUTES) {
+      String value = node.getStringAttribute(attribute);
+      if (value != null && !value.isEmpty()) {
+        consumer.accept(value);
+      }
+    }
+    if ("resultMap".equals(node.getName()) || "parameterMap".equals(node.getName())) {
+      String value = node.getStringAttribute("type");
+      if (value != null && !value.isEmpty()) {
+        consumer.accept(value);
+      }
+    }
+    node.getChildren().forEach(child -> collectTypeNames(child, consumer));
+  }
+
+  /**
+   * Resolve a class by class name.
+   *
+   * @param className
+   *          the class name
+   *
+   * @return the class. If a class cannot be resolved, return {@code null}
+   */
+  static Class<?> resolveClass(String className) {
+    if (className == null || className.isEmpty()) {
+      return null;
+    }
+    try {
+      return ClassUtils.forName(className, null);
+    } catch (ClassNotFoundException | LinkageError e) {
+      LOG.debug("Fail resolving type that referred from mapper xml file. type: " + className, e);
+      return null;
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.ErrorContext;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeException;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The parameter handler that used by {@link MyBatisXMLLanguageDriver}.
+ *
+ * @author Kazuki Shimizu
+ */
+class MyBatisParameterHandler extends DefaultParameterHandler {
+
+  private final MappedStatement mappedStatement;
+  private final Object parameterObject;
+  private final BoundSql boundSql;
+  private final Configuration configuration;
+  private final boolean simpleParameterObject;
+  private final boolean wrappedParameterObject;
+  private MetaObject metaObject;
+
+  MyBatisParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
+    super(mappedStatement, parameterObject, boundSql);
+    this.mappedStatement = mappedStatement;
+    this.parameterObject = parameterObject;
+    this.boundSql = boundSql;
+    this.configuration = mappedStatement.getConfiguration();
+    this.simpleParameterObject = parameterObject != null
+        && configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass());
+    this.wrappedParameterObject = parameterObject != null
+        && configuration.getObjectWrapperFactory().hasWrapperFor(parameterObject);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  @Override
+  public void setParameters(PreparedStatement ps) {
+    ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    if (parameterMappings != null) {
+      for (int i = 0; i < parameterMappings.size(); i++) {
+        ParameterMapping parameterMapping = parameterMappings.get(i);
+        if (parameterMapping.getMode() != ParameterMode.OUT) {
+          Object value = getValue(parameterMapping.getProperty());
+          TypeHandler typeHandler = parameterMapping.getTypeHandler();
+          JdbcType jdbcType = parameterMapping.getJdbcType();
+          if (value == null && jdbcType == null) {
+            jdbcType = configuration.getJdbcTypeForNull();
+          }
+          try {
+            typeHandler.setParameter(ps, i + 1, value, jdbcType);
+          } catch (TypeException | SQLException e) {
+            throw new TypeException("Could not set parameters for mapping: " + parameterMapping + ". Cause: " + e, e);
+          }
+        }
+      }
+    }
+  }
+
+  private Object getValue(String propertyName) {
+    if (boundSql.hasAdditionalParameter(propertyName)) {
+      return boundSql.getAdditionalParameter(propertyName);
+    } else if (parameterObject == null) {
+      return null;
+    } else if (simpleParameterObject) {
+      return parameterObject;
+    } else if (!wrappedParameterObject && isSimpleProperty(propertyName)) {
+      if (parameterObject instanceof Map) {
+        return ((Map<?, ?>) parameterObject).get(propertyName);
+      }
+      Reflector reflector = configuration.getReflectorFactory().findForClass(parameterObject.getClass());
+      if (reflector.hasGetter(propertyName)) {
+        try {
+          return reflector.getGetInvoker(propertyName).invoke(parameterObject, null);
+        } catch (Throwable t) {
+          throw new ReflectionException("Could not get property '" + propertyName + "' from "
+              + parameterObject.getClass() + ".  Cause: " + t.toString(), t);
+        }
+      }
+    }
+    if (metaObject == null) {
+      metaObject = configuration.newMetaObject(parameterObject);
+    }
+    return metaObject.getValue(propertyName);
+  }
+
+  private static boolean isSimpleProperty(String propertyName) {
+    return propertyName.indexOf('.') == -1 && propertyName.indexOf('[') == -1;
+  }
+
+}
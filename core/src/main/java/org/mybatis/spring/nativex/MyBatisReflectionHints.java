@@ -0,0 +1,123 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+
+/**
+ * The utility class for registering precise reflection hints.
+ * <p>
+ * In precise mode, a type that mapped by MyBatis is registered with members that the
+ * {@link org.apache.ibatis.reflection.Reflector} and the {@link org.apache.ibatis.reflection.factory.ObjectFactory}
+ * can touch only. These are declared constructors, getter and setter methods (includes super classes and
+ * interfaces), and fields of classes that do not have a getter or setter method (includes static fields except
+ * {@code static final} fields that have a getter method, as same as the {@code Reflector}). Unlike the
+ * {@code Reflector}, getter and setter methods are checked per declaring class, so a field that has an accessor on
+ * other class of the hierarchy is also registered.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisReflectionHints {
+
+  private MyBatisReflectionHints() {
+    // NOP
+  }
+
+  /**
+   * Return whether the precise reflection hint mode is enabled.
+   *
+   * @param beanFactory
+   *          the bean factory for retrieving the {@link Environment}
+   *
+   * @return If {@code mybatis.native.precise-reflection-hints} is {@code true}, return {@code true}
+   */
+  static boolean isPrecise(ConfigurableListableBeanFactory beanFactory) {
+    Environment environment = beanFactory.getBeanProvider(Environment.class).getIfAvailable();
+    return environment != null
+        && environment.getProperty("mybatis.native.precise-reflection-hints", Boolean.class, false);
+  }
+
+  /**
+   * Register members that accessed as property of the specified type.
+   *
+   * @param type
+   *          the type that mapped by MyBatis
+   * @param collector
+   *          the collector of native hints
+   */
+  static void registerPropertyMembers(Class<?> type, MyBatisHintCollector collector) {
+    collector.registerMembers(type, type.getDeclaredConstructors(), new Field[0]);
+    registerPropertyAccessors(type, collector);
+  }
+
+  private static void registerPropertyAccessors(Class<?> type, MyBatisHintCollector collector) {
+    if (type == null || type == Object.class || type.getName().startsWith("java")
+        || !collector.markPropertyAccessors(type)) {
+      // Accessors of super types have also been registered
+      return;
+    }
+    List<Executable> accessors = new ArrayList<>();
+    Set<String> getterNames = new HashSet<>();
+    Set<String> setterNames = new HashSet<>();
+    for (Method method : type.getDeclaredMethods()) {
+      // Same rule as the Reflector
+      if (method.getParameterCount() == 0 && PropertyNamer.isGetter(method.getName())) {
+        accessors.add(method);
+        getterNames.add(PropertyNamer.methodToProperty(method.getName()));
+      } else if (method.getParameterCount() == 1 && PropertyNamer.isSetter(method.getName())) {
+        accessors.add(method);
+        setterNames.add(PropertyNamer.methodToProperty(method.getName()));
+      }
+    }
+    List<Field> fields = new ArrayList<>();
+    // The Reflector collects fields of super classes only (constants of interfaces are not collected)
+    for (Field field : type.isInterface() ? new Field[0] : type.getDeclaredFields()) {
+      // Same rule as the Reflector (a 'static final' field is read only)
+      int modifiers = field.getModifiers();
+      boolean settable = !setterNames.contains(field.getName())
+          && !(Modifier.isFinal(modifiers) && Modifier.isStatic(modifiers));
+      if (isValidPropertyName(field.getName()) && (settable || !getterNames.contains(field.getName()))) {
+        fields.add(field);
+      }
+    }
+    if (!type.isInterface() || !accessors.isEmpty()) {
+      collector.registerMembers(type, accessors.toArray(new Executable[0]), fields.toArray(new Field[0]));
+    }
+    // The Reflector collects methods of interfaces too (e.g. default methods)
+    for (Class<?> interfaceType : type.getInterfaces()) {
+      registerPropertyAccessors(interfaceType, collector);
+    }
+    registerPropertyAccessors(type.getSuperclass(), collector);
+  }
+
+  private static boolean isValidPropertyName(String name) {
+    // Same rule as the Reflector
+    return !(name.startsWith("$") || "serialVersionUID".equals(name) || "class".equals(name));
+  }
+
+}
@@ -72,6 +72,34 @@ public @interface MyBatisResourcesScan {
    */
   String[] mapperLocationPatterns() default {};
 
+  /**
+   * Return whether compile scanned mapper xml files at build time.
+   * <p>
+   * Default is {@code false}. When {@code true}, mapper xml files that consist of static statements are parsed at
+   * build time, and their mapped statements, result maps and parameter maps are registered to the MyBatis
+   * configuration without xml parsing at startup time. Mapper xml files that cannot be compiled (e.g. using dynamic
+   * SQL, cache, selectKey or databaseId) are parsed at startup time as usual. Mapper xml files are compiled only in the
+   * AOT phase, and the AOT phase fails when sql fragments of a compiled mapper xml file are included from other mapper
+   * xml files.
+   * </P>
+   *
+   * @return whether compile scanned mapper xml files at build time
+   */
+  boolean compileMappers() default false;
+
+  /**
+   * Return whether exclude compiled mapper xml files from resource hint.
+   * <p>
+   * Default is {@code false}. When {@code true}, mapper xml files that compiled at build time are not included in a
+   * native image. Note that these files cannot be parsed at startup time when the default scripting language is
+   * customized.
+   * </P>
+   *
+   * @return whether exclude compiled mapper xml files from resource hint
+   * @see #compileMappers()
+   */
+  boolean excludeCompiledMapperResources() default false;
+
   /**
    * Return package names for scanning reflection hint type.
    * <p>
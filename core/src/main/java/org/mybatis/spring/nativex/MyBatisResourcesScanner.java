@@ -0,0 +1,446 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.ClassMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The scanner that scans classes and resources for {@code @MyBatisResourcesScan}.
+ * <p>
+ * A scanner is shared between all {@code @MyBatisResourcesScan} declarations of same bean definition registry, and
+ * it deduplicates identical patterns: a scan result of same package name or location pattern (and same kind of
+ * scanning) is reused between declarations. Patterns are not grouped by root directory, so overlapping patterns (e.g.
+ * {@code com/example/**} and {@code com/example/mapper/*.xml}) walk same directory once per pattern. Location patterns
+ * for jar files are matched against entry names that read from the central directory once per jar file.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisResourcesScanner {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisResourcesScanner.class);
+  private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+  private static final Pattern JAR_RESOURCE_PREFIX_PATTERN = Pattern.compile(".*\\.jar!/");
+  private static final String TYPE_HANDLER_CLASS_NAME = "org.apache.ibatis.type.TypeHandler";
+  private static final String DEFAULT_SCAN_CACHE_LOCATION = "mybatis-native/scan-cache.properties";
+
+  private final ResourcePatternResolver resourcePatternResolver = new PathMatchingResourcePatternResolver();
+  // Metadata cache per scanner (default limit of the CachingMetadataReaderFactory) that is released with the scanner
+  private final CachingMetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory();
+  private final Map<String, Set<String>> scanResults = new HashMap<>();
+  private final Map<String, Resource[]> resolvedResources = new HashMap<>();
+  private final Map<String, Optional<MyBatisScanIndex>> scanIndexes = new HashMap<>();
+  private final Map<File, List<String>> jarEntryNames = new HashMap<>();
+  private final boolean parallelScan;
+  private final boolean ignoreScanIndex;
+  private final MyBatisScanCache scanCache;
+
+  MyBatisResourcesScanner(Environment environment) {
+    this.parallelScan = environment.getProperty("mybatis.native.parallel-scan", Boolean.class, false);
+    this.ignoreScanIndex = environment.getProperty("mybatis.native.scan-index.ignore", Boolean.class, false);
+    ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+    this.scanCache = environment.getProperty("mybatis.native.scan-cache.enabled", Boolean.class, false)
+        ? MyBatisScanCache.load(Optional.ofNullable(environment.getProperty("mybatis.native.scan-cache.location"))
+            .map(Paths::get).orElseGet(() -> MyBatisBuildOutputs.resolve(DEFAULT_SCAN_CACHE_LOCATION, classLoader)),
+            classLoader)
+        : null;
+  }
+
+  /**
+   * Scan classes under the specified packages.
+   *
+   * @param scanName
+   *          the name of scanning that used as part of key for caching scan results
+   * @param packagePatterns
+   *          package patterns for scanning classes
+   * @param assignableType
+   *          the filter type (super class). When {@code void.class}, does not filter by type
+   * @param includeAbstract
+   *          whether include abstract classes
+   * @param includeMember
+   *          whether include member classes
+   *
+   * @return scanned classes that sorted by class name
+   *
+   * @throws IOException
+   *           if class files cannot be read
+   */
+  Set<Class<?>> scanClasses(String scanName, String[] packagePatterns, Class<?> assignableType,
+      boolean includeAbstract, boolean includeMember) throws IOException {
+    Predicate<ClassMetadata> candidateFilter = metadata -> !isAnonymousClass(metadata) && !metadata.isInterface()
+        && (includeAbstract || !metadata.isAbstract()) && (includeMember || !isMemberClass(metadata));
+    TypeFilter assignableTypeFilter = assignableType == void.class ? (reader, factory) -> true
+        : new AssignableTypeFilter(assignableType);
+    BiPredicate<String, Set<String>> indexEntryFilter = (className, stereotypes) -> (includeAbstract
+        || !stereotypes.contains(MyBatisScanIndex.ABSTRACT))
+        && (includeMember || !stereotypes.contains(MyBatisScanIndex.MEMBER))
+        && isAssignable(className, stereotypes, assignableType, assignableTypeFilter);
+    Set<String> classNames = new TreeSet<>();
+    try {
+      for (String packagePattern : packagePatterns) {
+        classNames.addAll(scan(
+            ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
+                + ClassUtils.convertClassNameToResourcePath(packagePattern) + "/**/*.class",
+            "classes:" + scanName + ":" + assignableType.getName(), assignableType != void.class,
+            resources -> (parallelScan ? Arrays.stream(resources).parallel() : Arrays.stream(resources))
+                .map(x -> getClassName(x, candidateFilter, assignableTypeFilter)).filter(Objects::nonNull)
+                .collect(Collectors.toSet()),
+            null, (scanIndex, classFilePattern) -> scanIndex.getEntries(classFilePattern, PATH_MATCHER).entrySet()
+                .stream().filter(x -> indexEntryFilter.test(x.getKey(), x.getValue())).map(Map.Entry::getKey)
+                .collect(Collectors.toSet())));
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    // Sort by class name for generating same hints regardless of scanning order
+    Set<Class<?>> classes = new ConcurrentSkipListSet<>(Comparator.comparing(Class::getName));
+    // Worker threads of fork-join pool does not inherit the context class loader of current thread
+    ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+    (parallelScan ? classNames.parallelStream() : classNames.stream()).map(x -> loadClass(x, classLoader))
+        .filter(Objects::nonNull)
+        .filter(clazz -> assignableType == void.class || assignableType.isAssignableFrom(clazz))
+        .forEach(classes::add);
+    return classes;
+  }
+
+  private String getClassName(Resource resource, Predicate<ClassMetadata> candidateFilter,
+      TypeFilter assignableTypeFilter) {
+    try {
+      // Reject candidates using class file metadata before loading a class.
+      // Filters using loaded class are applied as well because metadata filters rely on the naming rule of javac.
+      MetadataReader metadataReader = metadataReaderFactory.getMetadataReader(resource);
+      ClassMetadata classMetadata = metadataReader.getClassMetadata();
+      if (!candidateFilter.test(classMetadata)
+          || !assignableTypeFilter.match(metadataReader, metadataReaderFactory)) {
+        return null;
+      }
+      return classMetadata.getClassName();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private boolean isAssignable(String className, Set<String> stereotypes, Class<?> assignableType,
+      TypeFilter assignableTypeFilter) {
+    if (assignableType == void.class) {
+      return true;
+    }
+    if (TYPE_HANDLER_CLASS_NAME.equals(assignableType.getName())) {
+      return stereotypes.contains(MyBatisScanIndex.TYPE_HANDLER);
+    }
+    try {
+      return assignableTypeFilter.match(metadataReaderFactory.getMetadataReader(className),
+          metadataReaderFactory);
+    } catch (IOException e) {
+      LOG.debug("Fail reading class metadata. class: " + className, e);
+      return false;
+    }
+  }
+
+  private Class<?> loadClass(String className, ClassLoader classLoader) {
+    try {
+      return ClassUtils.forName(className, classLoader);
+    } catch (ClassNotFoundException e) {
+      LOG.debug("Fail loading class.", e);
+      return null;
+    }
+  }
+
+  private Set<String> scan(String locationPattern, String scanKey, boolean classpathDependent,
+      Function<Resource[], Set<String>> scanner, Function<List<String>, Set<String>> jarEntryScanner,
+      BiFunction<MyBatisScanIndex, String, Set<String>> indexScanner) throws IOException {
+    // Reuse a scan result for same location pattern that declared on other @MyBatisResourcesScan
+    String resultKey = scanKey + ":" + locationPattern;
+    Set<String> result = scanResults.get(resultKey);
+    if (result == null) {
+      result = Collections.unmodifiableSet(doScan(locationPattern, scanKey, classpathDependent,
+          scanner, jarEntryScanner, indexScanner));
+      scanResults.put(resultKey, result);
+    }
+    return result;
+  }
+
+  private Set<String> doScan(String locationPattern, String scanKey, boolean classpathDependent,
+      Function<Resource[], Set<String>> scanner, Function<List<String>, Set<String>> jarEntryScanner,
+      BiFunction<MyBatisScanIndex, String, Set<String>> indexScanner) throws IOException {
+    if (!PATH_MATCHER.isPattern(locationPattern.substring(locationPattern.indexOf(':') + 1))) {
+      return scanner.apply(getResources(locationPattern));
+    }
+    // Scan per root directory for using scan index, matching jar entries without opening a jar connection per root
+    // and reusing scan results of jar files that have not been changed
+    boolean useScanIndex = indexScanner != null && !ignoreScanIndex;
+    String rootDirPath = determineRootDir(locationPattern);
+    String relativeRootDirPath = rootDirPath.substring(rootDirPath.indexOf(':') + 1);
+    String subPattern = locationPattern.substring(rootDirPath.length());
+    Set<String> values = new TreeSet<>();
+    for (Resource rootDirResource : getResources(rootDirPath)) {
+      URL rootDirUrl = rootDirResource.getURL();
+      String rootDirUrlValue = rootDirUrl.toString();
+      if (useScanIndex && rootDirUrlValue.endsWith(relativeRootDirPath)) {
+        MyBatisScanIndex scanIndex = getScanIndex(
+            rootDirUrlValue.substring(0, rootDirUrlValue.length() - relativeRootDirPath.length()));
+        if (scanIndex != null) {
+          values.addAll(indexScanner.apply(scanIndex, relativeRootDirPath + subPattern));
+          continue;
+        }
+      }
+      File jarFile = getJarFile(rootDirUrl);
+      if (jarFile == null) {
+        values.addAll(scanner.apply(getResources(rootDirUrlValue + subPattern)));
+        continue;
+      }
+      String rootEntryPath = StringUtils.uriDecode(
+          rootDirUrlValue.substring(rootDirUrlValue.indexOf(ResourceUtils.JAR_URL_SEPARATOR) + 2),
+          StandardCharsets.UTF_8);
+      String jarScanKey = scanKey + ":" + rootEntryPath + subPattern;
+      Set<String> jarValues = scanCache == null ? null : scanCache.get(jarFile, jarScanKey, classpathDependent);
+      if (jarValues == null) {
+        List<String> entryNames = findJarEntryNames(jarFile, rootEntryPath, subPattern);
+        if (jarEntryScanner != null) {
+          jarValues = jarEntryScanner.apply(entryNames);
+        } else {
+          Resource[] resources = new Resource[entryNames.size()];
+          for (int i = 0; i < resources.length; i++) {
+            resources[i] = rootDirResource.createRelative(entryNames.get(i).substring(rootEntryPath.length()));
+          }
+          jarValues = scanner.apply(resources);
+        }
+        if (scanCache != null) {
+          scanCache.put(jarFile, jarScanKey, classpathDependent, new TreeSet<>(jarValues));
+        }
+      }
+      values.addAll(jarValues);
+    }
+    return values;
+  }
+
+  private List<String> findJarEntryNames(File jarFile, String rootEntryPath, String subPattern) throws IOException {
+    // Same matching rule as PathMatchingResourcePatternResolver#doFindPathMatchingJarResources
+    List<String> entryNames = getJarEntryNames(jarFile);
+    int index = Collections.binarySearch(entryNames, rootEntryPath);
+    List<String> matchedEntryNames = new ArrayList<>();
+    for (int i = index < 0 ? -(index + 1) : index; i < entryNames.size(); i++) {
+      String entryName = entryNames.get(i);
+      if (!entryName.startsWith(rootEntryPath)) {
+        break;
+      }
+      if (PATH_MATCHER.match(subPattern, entryName.substring(rootEntryPath.length()))) {
+        matchedEntryNames.add(entryName);
+      }
+    }
+    return matchedEntryNames;
+  }
+
+  private List<String> getJarEntryNames(File jarFile) throws IOException {
+    // Read the central directory once per jar file, entry names are sorted for narrowing entries by root entry path
+    List<String> entryNames = jarEntryNames.get(jarFile);
+    if (entryNames == null) {
+      try (ZipFile zipFile = new ZipFile(jarFile)) {
+        entryNames = zipFile.stream().map(ZipEntry::getName).sorted().collect(Collectors.toList());
+      }
+      jarEntryNames.put(jarFile, entryNames);
+    }
+    return entryNames;
+  }
+
+  private Resource[] getResources(String locationPattern) throws IOException {
+    // Reuse resolved resources between kinds of scanning (e.g. type aliases and reflection types in same package)
+    Resource[] resources = resolvedResources.get(locationPattern);
+    if (resources == null) {
+      resources = resourcePatternResolver.getResources(locationPattern);
+      resolvedResources.put(locationPattern, resources);
+    }
+    return resources;
+  }
+
+  private MyBatisScanIndex getScanIndex(String classpathEntryUrl) throws IOException {
+    Optional<MyBatisScanIndex> scanIndex = scanIndexes.get(classpathEntryUrl);
+    if (scanIndex == null) {
+      scanIndex = Optional.ofNullable(MyBatisScanIndex.load(classpathEntryUrl));
+      scanIndexes.put(classpathEntryUrl, scanIndex);
+    }
+    return scanIndex.orElse(null);
+  }
+
+  private String determineRootDir(String locationPattern) {
+    // Same rule as PathMatchingResourcePatternResolver#determineRootDir
+    int prefixEnd = locationPattern.indexOf(':') + 1;
+    int rootDirEnd = locationPattern.length();
+    while (rootDirEnd > prefixEnd && PATH_MATCHER.isPattern(locationPattern.substring(prefixEnd, rootDirEnd))) {
+      rootDirEnd = locationPattern.lastIndexOf('/', rootDirEnd - 2) + 1;
+    }
+    if (rootDirEnd == 0) {
+      rootDirEnd = prefixEnd;
+    }
+    return locationPattern.substring(0, rootDirEnd);
+  }
+
+  private File getJarFile(URL url) {
+    // Nested jar file (e.g. jar file in executable jar) is resolved by the resource pattern resolver
+    String urlValue = url.toString();
+    if (!ResourceUtils.isJarURL(url) || urlValue.indexOf(ResourceUtils.JAR_URL_SEPARATOR) != urlValue
+        .lastIndexOf(ResourceUtils.JAR_URL_SEPARATOR)) {
+      return null;
+    }
+    try {
+      return ResourceUtils.getFile(ResourceUtils.extractJarFileURL(url));
+    } catch (IOException e) {
+      LOG.debug("Fail resolving jar file. url: " + url, e);
+      return null;
+    }
+  }
+
+  private static boolean isAnonymousClass(ClassMetadata classMetadata) {
+    // Same naming rule as javac(e.g. Outer$1)
+    String innerClassName = getInnerClassName(classMetadata);
+    return innerClassName != null && innerClassName.chars().allMatch(Character::isDigit);
+  }
+
+  private static boolean isMemberClass(ClassMetadata classMetadata) {
+    // Same naming rule as javac(e.g. Outer$Inner), a local class name starts with digits(e.g. Outer$1Local)
+    String innerClassName = getInnerClassName(classMetadata);
+    return innerClassName != null && !Character.isDigit(innerClassName.charAt(0));
+  }
+
+  private static String getInnerClassName(ClassMetadata classMetadata) {
+    String enclosingClassName = classMetadata.getEnclosingClassName();
+    String className = classMetadata.getClassName();
+    if (enclosingClassName == null || !className.startsWith(enclosingClassName + "$")
+        || className.length() == enclosingClassName.length() + 1) {
+      return null;
+    }
+    return className.substring(enclosingClassName.length() + 1);
+  }
+
+  /**
+   * Scan resources that matches with the specified location patterns.
+   *
+   * @param locationPatterns
+   *          location patterns for scanning resources
+   *
+   * @return paths of scanned resources under classpath that sorted by path
+   */
+  Set<String> scanResources(String[] locationPatterns) {
+    try {
+      String baseUri = new ClassPathResource("/").getURI().toString();
+      Set<String> paths = new TreeSet<>();
+      for (String locationPattern : locationPatterns) {
+        paths.addAll(scanResources(locationPattern, baseUri));
+      }
+      return paths;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Set<String> scanResources(String locationPattern, String baseUri) {
+    try {
+      // Entry names of jar file are used as classpath relative paths as it is
+      return scan(locationPattern, "resources", false,
+          resources -> Stream.of(resources).map(x -> toPath(x, baseUri)).collect(Collectors.toSet()), HashSet::new,
+          null);
+    } catch (IOException e) {
+      LOG.debug("Fail getting resources. locationPattern: " + locationPattern, e);
+      return Collections.emptySet();
+    }
+  }
+
+  private String toPath(Resource resource, String baseUri) {
+    try {
+      String uri = resource.getURI().toString();
+      String path = uri;
+      if (uri.startsWith(baseUri)) {
+        path = uri.replace(baseUri, "");
+      } else if (uri.contains(".jar!")) {
+        path = JAR_RESOURCE_PREFIX_PATTERN.matcher(uri).replaceFirst("");
+      }
+      return path;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Save scan results to the on-disk scan cache when it is enabled.
+   */
+  void saveScanCache() {
+    if (scanCache != null) {
+      scanCache.save();
+    }
+  }
+
+  /**
+   * Clear scan results, scan indexes, class metadata, resolved resources and jar entry names that used during
+   * scanning.
+   * <p>
+   * This method is called when all {@code @MyBatisResourcesScan} declarations of same bean definition registry have
+   * been processed.
+   * </P>
+   */
+  void clearCaches() {
+    scanResults.clear();
+    scanIndexes.clear();
+    metadataReaderFactory.clearCache();
+    resolvedResources.clear();
+    jarEntryNames.clear();
+  }
+
+}
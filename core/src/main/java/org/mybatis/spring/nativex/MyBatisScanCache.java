@@ -0,0 +1,208 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.ResourceUtils;
+import org.springframework.util.StringUtils;
+
+/**
+ * The on-disk cache that holds scan results of {@code @MyBatisResourcesScan} per jar file.
+ * <p>
+ * A cache entry is keyed by the jar file path and the scan key, and it is discarded when the size or the last modified
+ * time of the jar file has been changed. A scan result that depends on other classpath entries (e.g. filtering by
+ * super type that may be declared in other jar file) is also discarded when any jar file on the classpath has been
+ * changed. Directories are always scanned because they are changed frequently during development.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisScanCache {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisScanCache.class);
+
+  private static final String KEY_SEPARATOR = "|";
+  private static final String VALUE_SEPARATOR = "\n";
+
+  private final Path location;
+  private final ClassLoader classLoader;
+  private final Properties entries = new Properties();
+  private String classpathFingerprint;
+  private boolean modified;
+
+  private MyBatisScanCache(Path location, ClassLoader classLoader) {
+    this.location = location;
+    this.classLoader = classLoader;
+  }
+
+  /**
+   * Load the scan cache from the specified file.
+   * <p>
+   * When the file does not exist or cannot be read, return an empty cache.
+   * </P>
+   *
+   * @param location
+   *          the cache file location
+   * @param classLoader
+   *          the class loader for collecting jar files on the classpath
+   *
+   * @return the scan cache
+   */
+  static MyBatisScanCache load(Path location, ClassLoader classLoader) {
+    MyBatisScanCache scanCache = new MyBatisScanCache(location, classLoader);
+    if (Files.isRegularFile(location)) {
+      try (InputStream in = Files.newInputStream(location)) {
+        scanCache.entries.load(in);
+      } catch (IOException e) {
+        LOG.debug("Fail loading scan cache. location: " + location, e);
+        scanCache.entries.clear();
+      }
+    }
+    return scanCache;
+  }
+
+  /**
+   * Return the cached scan result.
+   *
+   * @param jarFile
+   *          the jar file that scanned
+   * @param scanKey
+   *          the scan key (e.g. kind of scanning and location pattern in jar file)
+   * @param classpathDependent
+   *          whether the scan result depends on other classpath entries
+   *
+   * @return the cached scan result. If a scan result is not cached or jar file (or other jar files on the classpath
+   *         when depends on them) has been changed, return {@code null}
+   */
+  synchronized Set<String> get(File jarFile, String scanKey, boolean classpathDependent) {
+    String value = entries.getProperty(jarFile.getAbsolutePath() + KEY_SEPARATOR + scanKey);
+    String fingerprint = fingerprint(jarFile, classpathDependent) + KEY_SEPARATOR;
+    if (value == null || !value.startsWith(fingerprint)) {
+      return null;
+    }
+    String values = value.substring(fingerprint.length());
+    return values.isEmpty() ? Collections.emptySet()
+        : new LinkedHashSet<>(Arrays.asList(values.split(VALUE_SEPARATOR)));
+  }
+
+  /**
+   * Put the scan result to this cache.
+   *
+   * @param jarFile
+   *          the jar file that scanned
+   * @param scanKey
+   *          the scan key (e.g. kind of scanning and location pattern in jar file)
+   * @param classpathDependent
+   *          whether the scan result depends on other classpath entries
+   * @param values
+   *          the scan result
+   */
+  synchronized void put(File jarFile, String scanKey, boolean classpathDependent, Collection<String> values) {
+    entries.setProperty(jarFile.getAbsolutePath() + KEY_SEPARATOR + scanKey,
+        fingerprint(jarFile, classpathDependent) + KEY_SEPARATOR + String.join(VALUE_SEPARATOR, values));
+    modified = true;
+  }
+
+  /**
+   * Save this cache to the file when it has been modified.
+   * <p>
+   * Entries of jar files that no longer exist are removed.
+   * </P>
+   */
+  synchronized void save() {
+    if (!modified) {
+      return;
+    }
+    entries.stringPropertyNames().stream()
+        .filter(key -> !new File(key.substring(0, key.indexOf(KEY_SEPARATOR))).isFile()).forEach(entries::remove);
+    try {
+      Path parent = location.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try (OutputStream out = Files.newOutputStream(location)) {
+        entries.store(out, "Scan cache of @MyBatisResourcesScan");
+      }
+      modified = false;
+    } catch (IOException e) {
+      LOG.debug("Fail saving scan cache. location: " + location, e);
+    }
+  }
+
+  private String fingerprint(File jarFile, boolean classpathDependent) {
+    String fingerprint = fingerprint(jarFile);
+    return classpathDependent ? fingerprint + "-" + getClasspathFingerprint() : fingerprint;
+  }
+
+  private String getClasspathFingerprint() {
+    if (classpathFingerprint == null) {
+      StringBuilder sb = new StringBuilder();
+      for (File jarFile : getClasspathJarFiles()) {
+        sb.append(jarFile.getAbsolutePath()).append('=').append(fingerprint(jarFile)).append(VALUE_SEPARATOR);
+      }
+      classpathFingerprint = DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    return classpathFingerprint;
+  }
+
+  private Set<File> getClasspathJarFiles() {
+    Set<File> jarFiles = new TreeSet<>();
+    for (String path : StringUtils.tokenizeToStringArray(System.getProperty("java.class.path", ""),
+        File.pathSeparator)) {
+      jarFiles.add(new File(path).getAbsoluteFile());
+    }
+    // Class loaders of build tools (e.g. plugin class loader) are not reflected to the system property
+    for (ClassLoader current = classLoader; current != null; current = current.getParent()) {
+      if (current instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) current).getURLs()) {
+          if (ResourceUtils.isFileURL(url)) {
+            try {
+              jarFiles.add(ResourceUtils.getFile(url).getAbsoluteFile());
+            } catch (IOException e) {
+              LOG.debug("Fail resolving classpath entry. url: " + url, e);
+            }
+          }
+        }
+      }
+    }
+    jarFiles.removeIf(file -> !file.isFile());
+    return jarFiles;
+  }
+
+  private static String fingerprint(File jarFile) {
+    return jarFile.length() + "-" + jarFile.lastModified();
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * The scan index that generated by the {@code MyBatisIndexProcessor} at compile time.
+ * <p>
+ * The index file is located at {@value #LOCATION} of each classpath entry. Each line is formatted as
+ * {@code <binary class name>=<stereotypes>}, and stereotypes are comma separated values of {@value #ABSTRACT},
+ * {@value #MEMBER} and {@value #TYPE_HANDLER}. Interfaces, annotations, anonymous classes and local classes are not
+ * listed.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+final class MyBatisScanIndex {
+
+  static final String LOCATION = "META-INF/mybatis-native.index";
+
+  static final String ABSTRACT = "abstract";
+  static final String MEMBER = "member";
+  static final String TYPE_HANDLER = "typeHandler";
+
+  private final Map<String, Set<String>> entries;
+
+  private MyBatisScanIndex(Map<String, Set<String>> entries) {
+    this.entries = entries;
+  }
+
+  /**
+   * Load the scan index of the specified classpath entry.
+   *
+   * @param classpathEntryUrl
+   *          the url of classpath entry (e.g. {@code file:/app/target/classes/} or {@code jar:file:/app/lib.jar!/})
+   *
+   * @return the scan index. If an index file does not exist, return {@code null}
+   *
+   * @throws IOException
+   *           if an index file cannot be read
+   */
+  static MyBatisScanIndex load(String classpathEntryUrl) throws IOException {
+    Resource resource = new UrlResource(classpathEntryUrl + LOCATION);
+    if (!resource.exists()) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream in = resource.getInputStream()) {
+      properties.load(in);
+    }
+    Map<String, Set<String>> entries = new TreeMap<>();
+    properties.stringPropertyNames().forEach(className -> entries.put(className, Collections.unmodifiableSet(
+        Arrays.stream(StringUtils.commaDelimitedListToStringArray(properties.getProperty(className)))
+            .map(String::trim).filter(x -> !x.isEmpty()).collect(Collectors.toSet()))));
+    return new MyBatisScanIndex(Collections.unmodifiableMap(entries));
+  }
+
+  /**
+   * Return entries that match with the specified location pattern of class file.
+   *
+   * @param classFilePattern
+   *          the location pattern of class file relative to classpath entry (e.g. {@code com/example/*.class})
+   * @param pathMatcher
+   *          the path matcher
+   *
+   * @return entries that consist of class name and stereotypes
+   */
+  Map<String, Set<String>> getEntries(String classFilePattern, PathMatcher pathMatcher) {
+    Map<String, Set<String>> matchedEntries = new TreeMap<>();
+    entries.forEach((className, stereotypes) -> {
+      if (pathMatcher.match(classFilePattern, ClassUtils.convertClassNameToResourcePath(className) + ".class")) {
+        matchedEntries.put(className, stereotypes);
+      }
+    });
+    return matchedEntries;
+  }
+
+}
@@ -18,36 +18,56 @@ package org.mybatis.spring.nativex;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.logging.Log;
-import org.apache.commons.logging.LogFactory;
+import org.apache.ibatis.type.Alias;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
 import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeReference;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.context.EnvironmentAware;
 import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.core.annotation.AnnotationAttributes;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
-import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.type.AnnotationMetadata;
-import org.springframework.core.type.ClassMetadata;
-import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
-import org.springframework.core.type.classreading.MetadataReaderFactory;
 import org.springframework.nativex.hint.TypeAccess;
 import org.springframework.util.ClassUtils;
+import org.springframework.util.CollectionUtils;
 
 /**
  * The holder class that scanned resources using {@code @MyBatisResourcesScan}.
+ * <p>
+ * Scanned resources are passed as array via bean definition and held as array (collections are held as unmodifiable set
+ * backed by array), because this holder is kept during the application lifetime.
+ * </P>
  *
  * @author Kazuki Shimizu
  */
@@ -55,10 +75,19 @@ public class MyBatisScannedResourcesHolder {
 
   private Set<Class<?>> typeAliasesClasses;
   private Set<Class<?>> typeHandlerClasses;
+  private String[] typeAliasNames;
+  private Class<?>[] typeAliasTypes;
+  private Class<?>[] typeHandlerTypes;
+  private Class<?>[] typeHandlerJavaTypes;
+  private String[] typeHandlerJdbcTypes;
+  private boolean[] typeHandlerJavaTypeArguments;
   private Set<String> mapperLocations;
+  private Set<String> compiledMappers;
   private Set<Class<?>> reflectionClasses;
   private TypeAccess[] reflectionTypeAccesses;
   private Set<String> resourceLocations;
+  private Set<String> excludedResourceLocations;
+  private boolean released;
 
   /**
    * Return class list of scanned type aliases.
@@ -77,7 +106,7 @@ public class MyBatisScannedResourcesHolder {
    */
   @SuppressWarnings("unused")
   public void setTypeAliasesClasses(Set<Class<?>> typeAliasClasses) {
-    this.typeAliasesClasses = typeAliasClasses;
+    this.typeAliasesClasses = toSet(typeAliasClasses, new Class<?>[0]);
   }
 
   /**
@@ -97,7 +126,141 @@ public class MyBatisScannedResourcesHolder {
    */
   @SuppressWarnings("unused")
   public void setTypeHandlerClasses(Set<Class<?>> typeHandlerClasses) {
-    this.typeHandlerClasses = typeHandlerClasses;
+    this.typeHandlerClasses = toSet(typeHandlerClasses, new Class<?>[0]);
+  }
+
+  /**
+   * Return alias names of scanned type aliases that resolved at build time.
+   * <p>
+   * Each element corresponds to the element of {@link #getTypeAliasTypes()} at the same index.
+   * </P>
+   *
+   * @return alias names of scanned type aliases
+   */
+  public String[] getTypeAliasNames() {
+    return typeAliasNames;
+  }
+
+  /**
+   * Set alias names of scanned type aliases that resolved at build time.
+   *
+   * @param typeAliasNames
+   *          alias names of scanned type aliases
+   */
+  @SuppressWarnings("unused")
+  public void setTypeAliasNames(String[] typeAliasNames) {
+    this.typeAliasNames = typeAliasNames;
+  }
+
+  /**
+   * Return types of scanned type aliases that resolved at build time.
+   *
+   * @return types of scanned type aliases
+   */
+  public Class<?>[] getTypeAliasTypes() {
+    return typeAliasTypes;
+  }
+
+  /**
+   * Set types of scanned type aliases that resolved at build time.
+   *
+   * @param typeAliasTypes
+   *          types of scanned type aliases
+   */
+  @SuppressWarnings("unused")
+  public void setTypeAliasTypes(Class<?>[] typeAliasTypes) {
+    this.typeAliasTypes = typeAliasTypes;
+  }
+
+  /**
+   * Return type handler types of registrations that resolved at build time.
+   * <p>
+   * A registration consists of elements at the same index of {@link #getTypeHandlerTypes()},
+   * {@link #getTypeHandlerJavaTypes()}, {@link #getTypeHandlerJdbcTypes()} and
+   * {@link #getTypeHandlerJavaTypeArguments()}.
+   * </P>
+   *
+   * @return type handler types of registrations
+   */
+  public Class<?>[] getTypeHandlerTypes() {
+    return typeHandlerTypes;
+  }
+
+  /**
+   * Set type handler types of registrations that resolved at build time.
+   *
+   * @param typeHandlerTypes
+   *          type handler types of registrations
+   */
+  @SuppressWarnings("unused")
+  public void setTypeHandlerTypes(Class<?>[] typeHandlerTypes) {
+    this.typeHandlerTypes = typeHandlerTypes;
+  }
+
+  /**
+   * Return java types of registrations that resolved at build time.
+   * <p>
+   * The {@code void.class} indicates that a type handler is registered without java type.
+   * </P>
+   *
+   * @return java types of registrations
+   */
+  public Class<?>[] getTypeHandlerJavaTypes() {
+    return typeHandlerJavaTypes;
+  }
+
+  /**
+   * Set java types of registrations that resolved at build time.
+   *
+   * @param typeHandlerJavaTypes
+   *          java types of registrations
+   */
+  @SuppressWarnings("unused")
+  public void setTypeHandlerJavaTypes(Class<?>[] typeHandlerJavaTypes) {
+    this.typeHandlerJavaTypes = typeHandlerJavaTypes;
+  }
+
+  /**
+   * Return jdbc type names of registrations that resolved at build time.
+   * <p>
+   * The empty string indicates that a type handler is registered without jdbc type.
+   * </P>
+   *
+   * @return jdbc type names of registrations
+   */
+  public String[] getTypeHandlerJdbcTypes() {
+    return typeHandlerJdbcTypes;
+  }
+
+  /**
+   * Set jdbc type names of registrations that resolved at build time.
+   *
+   * @param typeHandlerJdbcTypes
+   *          jdbc type names of registrations
+   */
+  @SuppressWarnings("unused")
+  public void setTypeHandlerJdbcTypes(String[] typeHandlerJdbcTypes) {
+    this.typeHandlerJdbcTypes = typeHandlerJdbcTypes;
+  }
+
+  /**
+   * Return whether pass a java type to the constructor of type handler per registration.
+   *
+   * @return whether pass a java type to the constructor of type handler
+   */
+  public boolean[] getTypeHandlerJavaTypeArguments() {
+    return typeHandlerJavaTypeArguments;
+  }
+
+  /**
+   * Set whether pass a java type to the constructor of type handler per registration.
+   *
+   * @param typeHandlerJavaTypeArguments
+   *          whether pass a java type to the constructor of type handler
+   */
+  @SuppressWarnings("unused")
+  public void setTypeHandlerJavaTypeArguments(boolean[] typeHandlerJavaTypeArguments) {
+    this.typeHandlerJavaTypeArguments = typeHandlerJavaTypeArguments;
   }
 
   /**
@@ -117,7 +280,28 @@ public class MyBatisScannedResourcesHolder {
    */
   @SuppressWarnings("unused")
   public void setMapperLocations(Set<String> mapperLocations) {
-    this.mapperLocations = mapperLocations;
+    this.mapperLocations = toSet(mapperLocations, new String[0]);
+  }
+
+  /**
+   * Return list of compiled mapper.
+   *
+   * @return list of compiled mapper
+   * @see MyBatisCompiledMappers
+   */
+  public Set<String> getCompiledMappers() {
+    return compiledMappers;
+  }
+
+  /**
+   * Set list of compiled mapper.
+   *
+   * @param compiledMappers
+   *          list of compiled mapper
+   */
+  @SuppressWarnings("unused")
+  public void setCompiledMappers(Set<String> compiledMappers) {
+    this.compiledMappers = toSet(compiledMappers, new String[0]);
   }
 
   /**
@@ -128,7 +312,7 @@ public class MyBatisScannedResourcesHolder {
    */
   @SuppressWarnings("unused")
   public void setReflectionClasses(Set<Class<?>> reflectionClasses) {
-    this.reflectionClasses = reflectionClasses;
+    this.reflectionClasses = toSet(reflectionClasses, new Class<?>[0]);
   }
 
   /**
@@ -168,7 +352,7 @@ public class MyBatisScannedResourcesHolder {
    */
   @SuppressWarnings("unused")
   public void setResourceLocations(Set<String> resourceLocations) {
-    this.resourceLocations = resourceLocations;
+    this.resourceLocations = toSet(resourceLocations, new String[0]);
   }
 
   /**
@@ -180,13 +364,121 @@ public class MyBatisScannedResourcesHolder {
     return resourceLocations;
   }
 
-  static class Registrar implements ImportBeanDefinitionRegistrar {
-    private static final Log LOG = LogFactory.getLog(MyBatisMapperFactoryBeanPostProcessor.class);
-    private static final ResourcePatternResolver RESOURCE_PATTERN_RESOLVER = new PathMatchingResourcePatternResolver();
-    private static final MetadataReaderFactory METADATA_READER_FACTORY = new CachingMetadataReaderFactory();
-    private static final Pattern JAR_RESOURCE_PREFIX_PATTERN = Pattern.compile(".*\\.jar!/");
+  /**
+   * Set location list of excluding from resource hint.
+   *
+   * @param excludedResourceLocations
+   *          location list of excluding from resource hint
+   */
+  @SuppressWarnings("unused")
+  public void setExcludedResourceLocations(Set<String> excludedResourceLocations) {
+    this.excludedResourceLocations = toSet(excludedResourceLocations, new String[0]);
+  }
+
+  /**
+   * Return location list of excluding from resource hint.
+   *
+   * @return location list of excluding from resource hint
+   */
+  public Set<String> getExcludedResourceLocations() {
+    return excludedResourceLocations;
+  }
+
+  /**
+   * Set whether scanned resources have been released.
+   *
+   * @param released
+   *          whether scanned resources have been released
+   * @see #clear()
+   */
+  public void setReleased(boolean released) {
+    this.released = released;
+  }
+
+  /**
+   * Return whether scanned resources have been released.
+   *
+   * @return whether scanned resources have been released
+   * @see #clear()
+   */
+  public boolean isReleased() {
+    return released;
+  }
+
+  /**
+   * Clear all scanned resources.
+   * <p>
+   * This method is used for releasing scanned resources that are no longer needed after building the
+   * {@code SqlSessionFactory}.
+   * </P>
+   */
+  public void clear() {
+    this.typeAliasesClasses = null;
+    this.typeHandlerClasses = null;
+    this.typeAliasNames = null;
+    this.typeAliasTypes = null;
+    this.typeHandlerTypes = null;
+    this.typeHandlerJavaTypes = null;
+    this.typeHandlerJdbcTypes = null;
+    this.typeHandlerJavaTypeArguments = null;
+    this.mapperLocations = null;
+    this.compiledMappers = null;
+    this.reflectionClasses = null;
+    this.reflectionTypeAccesses = null;
+    this.resourceLocations = null;
+    this.excludedResourceLocations = null;
+    this.released = true;
+  }
+
+  private static <T> Set<T> toSet(Set<T> values, T[] emptyArray) {
+    // Scanned resources are held as unmodifiable set backed by array for reducing the footprint
+    return values == null ? null : new ArraySet<>(values.toArray(emptyArray));
+  }
+
+  /**
+   * Return values of the specified property of the holder's bean definition.
+   * <p>
+   * The Registrar sets scanned resources as array, but the bean definition that created by other ways may use a
+   * collection.
+   * </P>
+   *
+   * @param beanDefinition
+   *          the bean definition of holder
+   * @param propertyName
+   *          the property name
+   *
+   * @return values of property, or empty list when the property is not set
+   */
+  static Collection<?> getPropertyValues(BeanDefinition beanDefinition, String propertyName) {
+    Object value = Optional.ofNullable(beanDefinition.getPropertyValues().getPropertyValue(propertyName))
+        .map(PropertyValue::getValue).orElse(null);
+    return value instanceof Collection ? (Collection<?>) value : CollectionUtils.arrayToList(value);
+  }
+
+  static class Registrar implements ImportBeanDefinitionRegistrar, EnvironmentAware, BeanClassLoaderAware {
     private static final boolean PRESENT_TYPE_HANDLER = ClassUtils.isPresent("org.apache.ibatis.type.TypeHandler",
         null);
+    // The spring-aot is available only in the AOT phase (build time) and is not required at runtime
+    private static final String AOT_PROCESSOR_CLASS_NAME = "org.springframework.aot.context.bootstrap.generator."
+        + "infrastructure.nativex.BeanFactoryNativeConfigurationProcessor";
+    // Share a scanner between all registrars of same registry for reusing scan results and jar entry names,
+    // a scanner is released by the ScannerReleaser after all bean definitions have been registered
+    static final Map<BeanDefinitionRegistry, MyBatisResourcesScanner> SCANNERS = Collections
+        .synchronizedMap(new WeakHashMap<>());
+
+    private Environment environment = new StandardEnvironment();
+
+    private ClassLoader beanClassLoader;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+      this.environment = environment;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+      this.beanClassLoader = beanClassLoader;
+    }
 
     @Override
     public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
@@ -194,98 +486,201 @@ public class MyBatisScannedResourcesHolder {
           .ofNullable(AnnotationAttributes
               .fromMap(importingClassMetadata.getAnnotationAttributes(MyBatisResourcesScan.class.getName())))
           .orElseGet(AnnotationAttributes::new);
-      registerBeanDefinitions(annoAttrs, registry);
+      registerBeanDefinitions(annoAttrs, importingClassMetadata, registry);
     }
 
-    protected void registerBeanDefinitions(AnnotationAttributes annoAttrs, BeanDefinitionRegistry registry) {
+    protected void registerBeanDefinitions(AnnotationAttributes annoAttrs, AnnotationMetadata importingClassMetadata,
+        BeanDefinitionRegistry registry) {
+      MyBatisResourcesScanner scanner = getScanner(registry);
       try {
         BeanDefinitionBuilder builder = BeanDefinitionBuilder
             .genericBeanDefinition(MyBatisScannedResourcesHolder.class);
-        Set<Class<?>> typeAliasesClasses = scanClasses(annoAttrs.getStringArray("typeAliasesPackages"),
-            annoAttrs.getClass("typeAliasesSupperType")).stream().filter(clazz -> !clazz.isAnonymousClass())
+        Set<Class<?>> typeAliasesClasses = scanner.scanClasses("typeAliases",
+            annoAttrs.getStringArray("typeAliasesPackages"), annoAttrs.getClass("typeAliasesSupperType"), true, false)
+                .stream()
+                .filter(clazz -> !clazz.isAnonymousClass())
                 .filter(clazz -> !clazz.isInterface()).filter(clazz -> !clazz.isMemberClass())
-                .collect(Collectors.toSet());
-        builder.addPropertyValue("typeAliasesClasses", typeAliasesClasses);
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        builder.addPropertyValue("typeAliasesClasses", typeAliasesClasses.toArray(new Class<?>[0]));
         Set<Class<?>> typeHandlerClasses = Collections.emptySet();
         if (PRESENT_TYPE_HANDLER) {
-          typeHandlerClasses = scanClasses(annoAttrs.getStringArray("typeHandlerPackages"), TypeHandler.class).stream()
+          typeHandlerClasses = scanner.scanClasses("typeHandler", annoAttrs.getStringArray("typeHandlerPackages"),
+              TypeHandler.class, false, true).stream()
               .filter(clazz -> !clazz.isAnonymousClass()).filter(clazz -> !clazz.isInterface())
-              .filter(clazz -> !Modifier.isAbstract(clazz.getModifiers())).collect(Collectors.toSet());
+              .filter(clazz -> !Modifier.isAbstract(clazz.getModifiers()))
+              .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+        builder.addPropertyValue("typeHandlerClasses", typeHandlerClasses.toArray(new Class<?>[0]));
+        if (PRESENT_TYPE_HANDLER) {
+          addTypeAliasPropertyValues(builder, typeAliasesClasses);
+          addTypeHandlerPropertyValues(builder, typeHandlerClasses);
+        }
+        Set<String> mapperLocations = scanner.scanResources(annoAttrs.getStringArray("mapperLocationPatterns"));
+        builder.addPropertyValue("mapperLocations", mapperLocations.toArray(new String[0]));
+        Set<String> compiledMappers = new TreeSet<>();
+        if (PRESENT_TYPE_HANDLER && isAotProcessing() && annoAttrs.containsKey("compileMappers")
+            && annoAttrs.getBoolean("compileMappers")) {
+          for (String mapperLocation : mapperLocations) {
+            Optional.ofNullable(MyBatisMapperCompiler.compile(mapperLocation, typeAliasesClasses, typeHandlerClasses))
+                .ifPresent(compiledMappers::add);
+          }
+          MyBatisMapperCompiler.verifyFragmentReferences(mapperLocations,
+              compiledMappers.stream().map(MyBatisCompiledMappers::getLocation).collect(Collectors.toList()));
         }
-        builder.addPropertyValue("typeHandlerClasses", typeHandlerClasses);
-        Set<String> mapperLocations = scanResources(annoAttrs.getStringArray("mapperLocationPatterns"));
-        builder.addPropertyValue("mapperLocations", mapperLocations);
-        Set<Class<?>> reflectionClasses = scanClasses(annoAttrs.getStringArray("reflectionTypePackages"),
-            annoAttrs.getClass("reflectionTypeSupperType")).stream().filter(clazz -> !clazz.isAnonymousClass())
+        builder.addPropertyValue("compiledMappers", compiledMappers.toArray(new String[0]));
+        Set<String> excludedResourceLocations = annoAttrs.containsKey("excludeCompiledMapperResources")
+            && annoAttrs.getBoolean("excludeCompiledMapperResources")
+                ? compiledMappers.stream().map(MyBatisCompiledMappers::getLocation)
+                    .collect(Collectors.toCollection(TreeSet::new))
+                : Collections.emptySet();
+        builder.addPropertyValue("excludedResourceLocations", excludedResourceLocations.toArray(new String[0]));
+        Set<Class<?>> reflectionClasses = scanner.scanClasses("reflectionType",
+            annoAttrs.getStringArray("reflectionTypePackages"), annoAttrs.getClass("reflectionTypeSupperType"), false,
+            false).stream()
+                .filter(clazz -> !clazz.isAnonymousClass())
                 .filter(clazz -> !clazz.isInterface()).filter(clazz -> !Modifier.isAbstract(clazz.getModifiers()))
-                .filter(clazz -> !clazz.isMemberClass()).collect(Collectors.toSet());
+                .filter(clazz -> !clazz.isMemberClass()).collect(Collectors.toCollection(LinkedHashSet::new));
         builder.addPropertyValue("reflectionClasses",
-            Stream.of(typeAliasesClasses, typeHandlerClasses, reflectionClasses).flatMap(Set::stream)
-                .collect(Collectors.toSet()));
+            Stream.of(typeAliasesClasses, typeHandlerClasses, reflectionClasses).flatMap(Set::stream).distinct()
+                .toArray(Class<?>[]::new));
         builder.addPropertyValue("reflectionTypeAccesses", annoAttrs.get("typeAccesses"));
-        Set<String> resourceLocations = scanResources(annoAttrs.getStringArray("resourceLocationPatterns"));
+        Set<String> resourceLocations = scanner.scanResources(annoAttrs.getStringArray("resourceLocationPatterns"));
         builder.addPropertyValue("resourceLocations",
-            Stream.of(mapperLocations, resourceLocations).flatMap(Set::stream).collect(Collectors.toSet()));
+            Stream.concat(mapperLocations.stream().filter(x -> !excludedResourceLocations.contains(x)),
+                resourceLocations.stream()).sorted().distinct().toArray(String[]::new));
         BeanDefinition beanDefinition = builder.getBeanDefinition();
+        if (MyBatisHintReport.isEnabled(environment)) {
+          beanDefinition.setAttribute(MyBatisHintReport.DECLARING_CLASS_ATTRIBUTE,
+              importingClassMetadata.getClassName());
+          // Scan per location pattern for reporting which pattern inflates a native image
+          Map<String, Set<String>> resourcePatterns = new LinkedHashMap<>();
+          Stream.of(annoAttrs.getStringArray("mapperLocationPatterns"),
+              annoAttrs.getStringArray("resourceLocationPatterns")).flatMap(Stream::of)
+              .forEach(pattern -> resourcePatterns.put(pattern,
+                  scanner.scanResources(new String[] { pattern }).stream()
+                      .filter(x -> !excludedResourceLocations.contains(x))
+                      .collect(Collectors.toCollection(TreeSet::new))));
+          beanDefinition.setAttribute(MyBatisHintReport.RESOURCE_PATTERNS_ATTRIBUTE, resourcePatterns);
+        }
         registry.registerBeanDefinition(BeanDefinitionReaderUtils.generateBeanName(beanDefinition, registry),
             beanDefinition);
       } catch (IOException e) {
         throw new UncheckedIOException(e);
+      } finally {
+        scanner.saveScanCache();
       }
     }
 
-    private Set<Class<?>> scanClasses(String[] packagePatterns, Class<?> assignableType) throws IOException {
-      Set<Class<?>> classes = new HashSet<>();
-      for (String packagePattern : packagePatterns) {
-        Resource[] resources = RESOURCE_PATTERN_RESOLVER.getResources(ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX
-            + ClassUtils.convertClassNameToResourcePath(packagePattern) + "/**/*.class");
-        for (Resource resource : resources) {
-          try {
-            ClassMetadata classMetadata = METADATA_READER_FACTORY.getMetadataReader(resource).getClassMetadata();
-            Class<?> clazz = ClassUtils.forName(classMetadata.getClassName(), null);
-            if (assignableType == void.class || assignableType.isAssignableFrom(clazz)) {
-              classes.add(clazz);
-            }
-          } catch (ClassNotFoundException e) {
-            LOG.debug("Fail loading class.", e);
-          }
+    private boolean isAotProcessing() {
+      // Compile mapper xml files only in the AOT phase because they are parsed at startup time on a plain JVM
+      return ClassUtils.isPresent(AOT_PROCESSOR_CLASS_NAME, beanClassLoader);
+    }
+
+    private MyBatisResourcesScanner getScanner(BeanDefinitionRegistry registry) {
+      MyBatisResourcesScanner scanner = SCANNERS.get(registry);
+      if (scanner == null) {
+        scanner = new MyBatisResourcesScanner(environment);
+        SCANNERS.put(registry, scanner);
+        if (!registry.containsBeanDefinition(ScannerReleaser.BEAN_NAME)) {
+          registry.registerBeanDefinition(ScannerReleaser.BEAN_NAME,
+              BeanDefinitionBuilder.genericBeanDefinition(ScannerReleaser.class)
+                  .setRole(BeanDefinition.ROLE_INFRASTRUCTURE).getBeanDefinition());
         }
       }
-      return classes;
+      return scanner;
     }
 
-    private Set<String> scanResources(String[] mapperLocationPatterns) {
-      try {
-        String baseUri = new ClassPathResource("/").getURI().toString();
-        return Stream.of(mapperLocationPatterns).flatMap(location -> Stream.of(getResources(location)))
-            .map(x -> toPath(x, baseUri)).collect(Collectors.toSet());
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
-      }
+    private void addTypeAliasPropertyValues(BeanDefinitionBuilder builder, Set<Class<?>> typeAliasesClasses) {
+      List<Class<?>> types = typeAliasesClasses.stream().sorted(Comparator.comparing(Class::getName))
+          .collect(Collectors.toList());
+      builder.addPropertyValue("typeAliasNames", types.stream().map(type -> Optional
+          .ofNullable(type.getAnnotation(Alias.class)).map(Alias::value).orElse(type.getSimpleName()))
+          .toArray(String[]::new));
+      builder.addPropertyValue("typeAliasTypes", types.toArray(new Class<?>[0]));
     }
 
-    private Resource[] getResources(String locationPattern) {
-      try {
-        return RESOURCE_PATTERN_RESOLVER.getResources(locationPattern);
-      } catch (IOException e) {
-        LOG.debug("Fail getting resources. locationPattern: " + locationPattern, e);
-        return new Resource[0];
+    private void addTypeHandlerPropertyValues(BeanDefinitionBuilder builder, Set<Class<?>> typeHandlerClasses) {
+      List<Class<?>> handlerTypes = new ArrayList<>();
+      List<Class<?>> javaTypes = new ArrayList<>();
+      List<String> jdbcTypes = new ArrayList<>();
+      List<Boolean> javaTypeArguments = new ArrayList<>();
+      for (Class<?> typeHandlerClass : typeHandlerClasses.stream().sorted(Comparator.comparing(Class::getName))
+          .collect(Collectors.toList())) {
+        // Resolve java types and jdbc types as same as TypeHandlerRegistry#register(Class)
+        Class<?>[] mappedTypes = Optional.ofNullable(typeHandlerClass.getAnnotation(MappedTypes.class))
+            .map(MappedTypes::value).orElse(new Class<?>[0]);
+        boolean javaTypeArgument = mappedTypes.length > 0;
+        if (!javaTypeArgument) {
+          Class<?> rawType = TypeReference.class.isAssignableFrom(typeHandlerClass)
+              ? resolveTypeReferenceRawType(typeHandlerClass) : void.class;
+          if (rawType == null) {
+            // Register at startup time using TypeHandlerRegistry#register(Class)
+            continue;
+          }
+          mappedTypes = new Class<?>[] { rawType };
+        }
+        MappedJdbcTypes mappedJdbcTypes = typeHandlerClass.getAnnotation(MappedJdbcTypes.class);
+        List<String> mappedJdbcTypeNames = new ArrayList<>();
+        if (mappedJdbcTypes != null) {
+          Stream.of(mappedJdbcTypes.value()).map(JdbcType::name).forEach(mappedJdbcTypeNames::add);
+        }
+        if (mappedJdbcTypes == null || mappedJdbcTypes.includeNullJdbcType()) {
+          mappedJdbcTypeNames.add("");
+        }
+        for (Class<?> javaType : mappedTypes) {
+          for (String jdbcType : mappedJdbcTypeNames) {
+            handlerTypes.add(typeHandlerClass);
+            javaTypes.add(javaType);
+            jdbcTypes.add(jdbcType);
+            javaTypeArguments.add(javaTypeArgument);
+          }
+        }
+      }
+      boolean[] javaTypeArgumentValues = new boolean[javaTypeArguments.size()];
+      for (int i = 0; i < javaTypeArgumentValues.length; i++) {
+        javaTypeArgumentValues[i] = javaTypeArguments.get(i);
       }
+      builder.addPropertyValue("typeHandlerTypes", handlerTypes.toArray(new Class<?>[0]));
+      builder.addPropertyValue("typeHandlerJavaTypes", javaTypes.toArray(new Class<?>[0]));
+      builder.addPropertyValue("typeHandlerJdbcTypes", jdbcTypes.toArray(new String[0]));
+      builder.addPropertyValue("typeHandlerJavaTypeArguments", javaTypeArgumentValues);
     }
 
-    private String toPath(Resource resource, String baseUri) {
-      try {
-        String uri = resource.getURI().toString();
-        String path = uri;
-        if (uri.startsWith(baseUri)) {
-          path = uri.replace(baseUri, "");
-        } else if (uri.contains(".jar!")) {
-          path = JAR_RESOURCE_PREFIX_PATTERN.matcher(uri).replaceFirst("");
-        }
-        return path;
-      } catch (IOException e) {
-        throw new UncheckedIOException(e);
+    private Class<?> resolveTypeReferenceRawType(Class<?> clazz) {
+      // Same rule as TypeReference#getSuperclassTypeParameter
+      Type genericSuperclass = clazz.getGenericSuperclass();
+      if (genericSuperclass instanceof Class) {
+        return TypeReference.class != genericSuperclass ? resolveTypeReferenceRawType(clazz.getSuperclass()) : null;
+      }
+      if (!(genericSuperclass instanceof ParameterizedType)) {
+        return null;
+      }
+      Type rawType = ((ParameterizedType) genericSuperclass).getActualTypeArguments()[0];
+      if (rawType instanceof ParameterizedType) {
+        rawType = ((ParameterizedType) rawType).getRawType();
       }
+      return rawType instanceof Class ? (Class<?>) rawType : null;
+    }
+
+  }
+
+  /**
+   * The post processor that releases the scanner shared between {@code @MyBatisResourcesScan} declarations.
+   * <p>
+   * Bean factory post processors are invoked after all import bean definition registrars have registered bean
+   * definitions, so scan results, scan indexes, jar entry names and class metadata are no longer needed.
+   * </P>
+   */
+  static class ScannerReleaser implements BeanFactoryPostProcessor {
+
+    static final String BEAN_NAME = ScannerReleaser.class.getName();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+      Optional.ofNullable(Registrar.SCANNERS.remove(beanFactory)).ifPresent(MyBatisResourcesScanner::clearCaches);
     }
 
   }
@@ -297,10 +692,36 @@ public class MyBatisScannedResourcesHolder {
       AnnotationAttributes mapperScansAttrs = AnnotationAttributes
           .fromMap(importingClassMetadata.getAnnotationAttributes(MyBatisResourcesScan.List.class.getName()));
       for (AnnotationAttributes annoAttrs : mapperScansAttrs.getAnnotationArray("value")) {
-        this.registerBeanDefinitions(annoAttrs, registry);
+        this.registerBeanDefinitions(annoAttrs, importingClassMetadata, registry);
       }
     }
 
   }
 
+  /**
+   * The unmodifiable set backed by an array.
+   * <p>
+   * It is created once per setting scanned resources, and holds no hash table.
+   * </P>
+   */
+  private static final class ArraySet<T> extends AbstractSet<T> {
+
+    private final T[] values;
+
+    private ArraySet(T[] values) {
+      this.values = values;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+      return Collections.unmodifiableList(Arrays.asList(values)).iterator();
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+
+  }
+
 }
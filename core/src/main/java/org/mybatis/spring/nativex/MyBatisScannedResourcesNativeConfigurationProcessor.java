@@ -28,13 +28,10 @@ import static org.springframework.nativex.hint.TypeAccess.QUERY_DECLARED_METHODS
 import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_CONSTRUCTORS;
 import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_METHODS;
 
-import java.util.Collections;
 import java.util.Optional;
-import java.util.Set;
 
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.BeanFactoryNativeConfigurationProcessor;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
-import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeResourcesEntry;
 import org.springframework.beans.PropertyValue;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
@@ -56,24 +53,29 @@ public class MyBatisScannedResourcesNativeConfigurationProcessor implements Bean
    */
   @Override
   public void process(ConfigurableListableBeanFactory beanFactory, NativeConfigurationRegistry registry) {
+    MyBatisHintCollector hints = MyBatisHintCollector.of(beanFactory, registry, getClass());
+    boolean precise = MyBatisReflectionHints.isPrecise(beanFactory);
     String[] beanNames = beanFactory.getBeanNamesForType(MyBatisScannedResourcesHolder.class);
     for (String beanName : beanNames) {
       BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
-      @SuppressWarnings("unchecked")
-      Set<String> resourceLocations = (Set<String>) Optional
-          .ofNullable(beanDefinition.getPropertyValues().getPropertyValue("resourceLocations"))
-          .map(PropertyValue::getValue).orElse(Collections.emptySet());
-      resourceLocations.forEach(x -> registry.resources().add(NativeResourcesEntry.of(x)));
-      @SuppressWarnings("unchecked")
-      Set<Class<?>> reflectionClasses = (Set<Class<?>>) Optional
-          .ofNullable(beanDefinition.getPropertyValues().getPropertyValue("reflectionClasses"))
-          .map(PropertyValue::getValue).orElse(Collections.emptySet());
+      MyBatisHintCollector scanHints = hints.forScan(beanName, beanDefinition);
+      MyBatisScannedResourcesHolder.getPropertyValues(beanDefinition, "resourceLocations")
+          .forEach(x -> scanHints.registerResource((String) x));
       TypeAccess[] reflectionTypeAccesses = (TypeAccess[]) Optional
           .ofNullable(beanDefinition.getPropertyValues().getPropertyValue("reflectionTypeAccesses"))
-          .map(PropertyValue::getValue).orElse(DEFAULT_TYPE_ACCESSES);
-      reflectionClasses.forEach(x -> registry.reflection().forType(x)
-          .withAccess(reflectionTypeAccesses.length == 0 ? DEFAULT_TYPE_ACCESSES : reflectionTypeAccesses).build());
+          .map(PropertyValue::getValue).orElseGet(() -> new TypeAccess[0]);
+      for (Object reflectionClass : MyBatisScannedResourcesHolder.getPropertyValues(beanDefinition,
+          "reflectionClasses")) {
+        if (precise && reflectionTypeAccesses.length == 0) {
+          // Explicit type accesses take precedence over the precise mode
+          MyBatisReflectionHints.registerPropertyMembers((Class<?>) reflectionClass, scanHints);
+        } else {
+          scanHints.registerType((Class<?>) reflectionClass,
+              reflectionTypeAccesses.length == 0 ? DEFAULT_TYPE_ACCESSES : reflectionTypeAccesses);
+        }
+      }
     }
+    hints.complete();
   }
 
 }
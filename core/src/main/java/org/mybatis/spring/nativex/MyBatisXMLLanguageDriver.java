@@ -0,0 +1,127 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * The {@link XMLLanguageDriver} that optimizes parameter binding and SQL provider execution.
+ * <p>
+ * SQL sources are created as same as the {@link XMLLanguageDriver}. When the fast parameter binding is enabled, the
+ * parameter handler resolves a simple property (not contains {@code .} and {@code [}) using a cached
+ * {@link org.apache.ibatis.reflection.Reflector} or {@link java.util.Map#get(Object)} directly, and other properties
+ * are resolved using a {@link org.apache.ibatis.reflection.MetaObject} that created once per execution.
+ * </P>
+ * <p>
+ * When the SQL provider cache is enabled, SQL sources that created from a SQL string without the {@code <script>} (a
+ * SQL that does not contain dynamic tags) are cached per configuration, SQL and parameter type. A
+ * {@link org.apache.ibatis.builder.annotation.ProviderSqlSource} creates a SQL source from a SQL returned by a SQL
+ * provider (e.g. {@code @SelectProvider}) on every execution, and the cache avoids parsing same SQL again. SQL sources
+ * of annotations (e.g. {@code @Select}) are also cached because they are created through same method, but these are
+ * created only once at startup time and evicted as least recently used. SQL sources of xml are not cached. The cache
+ * evicts a least recently used SQL source when the number of cached SQL sources exceeds the max size.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+public class MyBatisXMLLanguageDriver extends XMLLanguageDriver {
+
+  private final boolean fastParameterBinding;
+
+  private final Map<List<Object>, SqlSource> sqlSourceCache;
+
+  /**
+   * Constructor for enabling the fast parameter binding only.
+   */
+  public MyBatisXMLLanguageDriver() {
+    this(true, 0);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param fastParameterBinding
+   *          whether bind simple properties without {@code MetaObject}
+   * @param providerSqlCacheMaxSize
+   *          the max number of cached SQL sources that created from SQL strings without the {@code <script>} (the
+   *          cache is disabled when {@code 0} or less)
+   */
+  public MyBatisXMLLanguageDriver(boolean fastParameterBinding, int providerSqlCacheMaxSize) {
+    this.fastParameterBinding = fastParameterBinding;
+    this.sqlSourceCache = providerSqlCacheMaxSize > 0
+        ? Collections.synchronizedMap(new LinkedHashMap<List<Object>, SqlSource>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<List<Object>, SqlSource> eldest) {
+            return size() > providerSqlCacheMaxSize;
+          }
+        }) : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ParameterHandler createParameterHandler(MappedStatement mappedStatement, Object parameterObject,
+      BoundSql boundSql) {
+    if (!fastParameterBinding) {
+      return super.createParameterHandler(mappedStatement, parameterObject, boundSql);
+    }
+    return new MyBatisParameterHandler(mappedStatement, parameterObject, boundSql);
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SqlSource createSqlSource(Configuration configuration, String script, Class<?> parameterType) {
+    // A script that starts with '<script>' is parsed as xml by the XMLLanguageDriver
+    if (sqlSourceCache == null || script.startsWith("<script>")) {
+      return super.createSqlSource(configuration, script, parameterType);
+    }
+    List<Object> key = Arrays.asList(configuration, script, parameterType);
+    SqlSource sqlSource = sqlSourceCache.get(key);
+    if (sqlSource == null) {
+      sqlSource = super.createSqlSource(configuration, script, parameterType);
+      sqlSourceCache.put(key, sqlSource);
+    }
+    return sqlSource;
+  }
+
+  List<String> getCachedSqls() {
+    if (sqlSourceCache == null) {
+      return Collections.emptyList();
+    }
+    synchronized (sqlSourceCache) {
+      // Ordered from least recently used
+      return sqlSourceCache.keySet().stream().map(key -> (String) key.get(1)).collect(Collectors.toList());
+    }
+  }
+
+}
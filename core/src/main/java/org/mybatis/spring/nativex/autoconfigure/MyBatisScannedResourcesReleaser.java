@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.autoconfigure;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.mybatis.spring.nativex.MyBatisScannedResourcesHolder;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.beans.PropertyValue;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+/**
+ * The listener that releases scanned resources of {@link MyBatisScannedResourcesHolder} after the application context
+ * has been refreshed.
+ * <p>
+ * Scanned resources are only needed while building the {@code SqlSessionFactory}. This listener clears contents of
+ * holders and removes property values of holder's bean definitions for allowing them to be garbage collected. Note
+ * that scanned resources cannot be applied to the {@code SqlSessionFactory} that created after refreshing (e.g. lazy
+ * initialization or a child context), and building it fails with an {@link IllegalStateException}.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+class MyBatisScannedResourcesReleaser implements ApplicationListener<ContextRefreshedEvent> {
+
+  private static final Log LOG = LogFactory.getLog(MyBatisScannedResourcesReleaser.class);
+
+  private final ConfigurableListableBeanFactory beanFactory;
+
+  MyBatisScannedResourcesReleaser(ConfigurableListableBeanFactory beanFactory) {
+    this.beanFactory = beanFactory;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void onApplicationEvent(ContextRefreshedEvent event) {
+    // Ignore events of child contexts
+    if (event.getApplicationContext().getAutowireCapableBeanFactory() != beanFactory) {
+      return;
+    }
+    String[] beanNames = beanFactory.getBeanNamesForType(MyBatisScannedResourcesHolder.class, false, false);
+    for (String beanName : beanNames) {
+      if (beanFactory.containsSingleton(beanName)) {
+        beanFactory.getBean(beanName, MyBatisScannedResourcesHolder.class).clear();
+      }
+      // Holders that created from the released bean definition are marked as released
+      MutablePropertyValues propertyValues = beanFactory.getBeanDefinition(beanName).getPropertyValues();
+      removePropertyValues(propertyValues);
+      propertyValues.add("released", true);
+    }
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Released scanned resources. holders: " + String.join(",", beanNames));
+    }
+  }
+
+  private void removePropertyValues(MutablePropertyValues propertyValues) {
+    for (PropertyValue propertyValue : propertyValues.getPropertyValues()) {
+      propertyValues.removePropertyValue(propertyValue);
+    }
+  }
+
+}
@@ -15,17 +15,42 @@
  */
 package org.mybatis.spring.nativex.autoconfigure;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeAliasRegistry;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 
 import org.mybatis.spring.boot.autoconfigure.ConfigurationCustomizer;
 import org.mybatis.spring.boot.autoconfigure.MybatisAutoConfiguration;
 import org.mybatis.spring.boot.autoconfigure.SqlSessionFactoryBeanCustomizer;
+import org.mybatis.spring.nativex.MyBatisCompiledMappers;
 import org.mybatis.spring.nativex.MyBatisScannedResourcesHolder;
+import org.mybatis.spring.nativex.MyBatisXMLLanguageDriver;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.core.io.Resource;
 
@@ -44,22 +69,132 @@ public class MyBatisSpringNativeAutoConfiguration {
   ConfigurationCustomizer mybatisScannedResourcesHolderConfigurationCustomizer(
       List<MyBatisScannedResourcesHolder> holders) {
     return configuration -> holders.forEach(holder -> {
-      holder.getTypeAliasesClasses().forEach(configuration.getTypeAliasRegistry()::registerAlias);
-      holder.getTypeHandlerClasses().forEach(configuration.getTypeHandlerRegistry()::register);
+      checkNotReleased(holder);
+      registerTypeAliases(holder, configuration.getTypeAliasRegistry());
+      registerTypeHandlers(holder, configuration.getTypeHandlerRegistry());
     });
   }
 
+  private static void checkNotReleased(MyBatisScannedResourcesHolder holder) {
+    if (holder.isReleased()) {
+      throw new IllegalStateException("Cannot apply scanned resources of @MyBatisResourcesScan to the SqlSessionFactory"
+          + " because they have been released after refreshing the application context. Set"
+          + " 'mybatis.native.release-scanned-resources' to false when the SqlSessionFactory is created after"
+          + " refreshing (e.g. lazy initialization or a child context).");
+    }
+  }
+
+  private static void registerTypeAliases(MyBatisScannedResourcesHolder holder, TypeAliasRegistry registry) {
+    String[] names = Optional.ofNullable(holder.getTypeAliasNames()).orElseGet(() -> new String[0]);
+    Class<?>[] types = Optional.ofNullable(holder.getTypeAliasTypes()).orElseGet(() -> new Class<?>[0]);
+    for (int i = 0; i < types.length; i++) {
+      registry.registerAlias(names[i], types[i]);
+    }
+    // Fallback for types that does not resolved at build time
+    Set<Class<?>> resolvedTypes = new HashSet<>(Arrays.asList(types));
+    holder.getTypeAliasesClasses().stream().filter(type -> !resolvedTypes.contains(type))
+        .forEach(registry::registerAlias);
+  }
+
+  @SuppressWarnings({ "unchecked", "rawtypes" })
+  private static void registerTypeHandlers(MyBatisScannedResourcesHolder holder, TypeHandlerRegistry registry) {
+    Class<?>[] handlerTypes = Optional.ofNullable(holder.getTypeHandlerTypes()).orElseGet(() -> new Class<?>[0]);
+    Class<?>[] javaTypes = holder.getTypeHandlerJavaTypes();
+    String[] jdbcTypes = holder.getTypeHandlerJdbcTypes();
+    boolean[] javaTypeArguments = holder.getTypeHandlerJavaTypeArguments();
+    Map<List<Class<?>>, TypeHandler<?>> typeHandlers = new HashMap<>();
+    for (int i = 0; i < handlerTypes.length; i++) {
+      Class<?> handlerType = handlerTypes[i];
+      Class<?> javaType = javaTypes[i] == void.class ? null : javaTypes[i];
+      Class<?> argumentType = javaTypeArguments[i] ? javaType : null;
+      TypeHandler<?> typeHandler = typeHandlers.computeIfAbsent(Arrays.asList(handlerType, argumentType),
+          k -> registry.getInstance(argumentType, handlerType));
+      registry.register((Class) javaType, jdbcTypes[i].isEmpty() ? null : JdbcType.valueOf(jdbcTypes[i]),
+          typeHandler);
+    }
+    // Fallback for types that does not resolved at build time
+    Set<Class<?>> resolvedTypes = new HashSet<>(Arrays.asList(handlerTypes));
+    holder.getTypeHandlerClasses().stream().filter(type -> !resolvedTypes.contains(type))
+        .forEach(registry::register);
+  }
+
   @ConditionalOnBean(MyBatisScannedResourcesHolder.class)
   @Bean
   SqlSessionFactoryBeanCustomizer mybatisScannedResourcesHolderSqlSessionFactoryBeanCustomizer(
       List<MyBatisScannedResourcesHolder> holders) {
     return factoryBean -> {
-      Resource[] resources = holders.stream()
-          .flatMap(holder -> holder.getMapperLocations().stream().map(ClassPathResource::new)).toArray(Resource[]::new);
+      holders.forEach(MyBatisSpringNativeAutoConfiguration::checkNotReleased);
+      Set<String> compiledMappers = holders.stream().map(MyBatisScannedResourcesHolder::getCompiledMappers)
+          .filter(Objects::nonNull).flatMap(Set::stream).collect(Collectors.toSet());
+      Set<String> compiledLocations = compiledMappers.stream().map(MyBatisCompiledMappers::getLocation)
+          .collect(Collectors.toSet());
+      Resource[] resources = holders.stream().flatMap(holder -> holder.getMapperLocations().stream())
+          .filter(location -> !compiledLocations.contains(location)).map(ClassPathResource::new)
+          .toArray(Resource[]::new);
       if (resources.length > 0) {
         factoryBean.setMapperLocations(resources);
       }
+      if (!compiledMappers.isEmpty()) {
+        factoryBean.setSqlSessionFactoryBuilder(new CompiledMappersSqlSessionFactoryBuilder(compiledMappers));
+      }
+    };
+  }
+
+  @Bean
+  ConfigurationCustomizer mybatisXmlLanguageDriverConfigurationCustomizer(Environment environment) {
+    boolean fastParameterBinding = environment.getProperty("mybatis.native.fast-parameter-binding", Boolean.class,
+        false);
+    int providerSqlCacheMaxSize = environment.getProperty("mybatis.native.provider-sql-cache.enabled", Boolean.class,
+        false) ? environment.getProperty("mybatis.native.provider-sql-cache.max-size", Integer.class, 1024) : 0;
+    return configuration -> {
+      if ((fastParameterBinding || providerSqlCacheMaxSize > 0)
+          && configuration.getDefaultScriptingLanguageInstance().getClass() == XMLLanguageDriver.class) {
+        configuration.getLanguageRegistry()
+            .register(new MyBatisXMLLanguageDriver(fastParameterBinding, providerSqlCacheMaxSize));
+        configuration.setDefaultScriptingLanguage(MyBatisXMLLanguageDriver.class);
+      }
     };
   }
 
+  @ConditionalOnBean(MyBatisScannedResourcesHolder.class)
+  @ConditionalOnProperty(prefix = "mybatis.native", name = "release-scanned-resources", havingValue = "true")
+  @Bean
+  MyBatisScannedResourcesReleaser mybatisScannedResourcesReleaser(ConfigurableListableBeanFactory beanFactory) {
+    return new MyBatisScannedResourcesReleaser(beanFactory);
+  }
+
+  private static class CompiledMappersSqlSessionFactoryBuilder extends SqlSessionFactoryBuilder {
+
+    private final Set<String> compiledMappers;
+
+    private CompiledMappersSqlSessionFactoryBuilder(Set<String> compiledMappers) {
+      this.compiledMappers = compiledMappers;
+    }
+
+    @Override
+    public SqlSessionFactory build(org.apache.ibatis.session.Configuration config) {
+      boolean registrable = MyBatisCompiledMappers.isRegistrable(config);
+      for (String compiledMapper : compiledMappers) {
+        if (registrable) {
+          MyBatisCompiledMappers.register(compiledMapper, config);
+        } else {
+          // Fallback to parse a mapper xml file when statements cannot be built using compiled mapper
+          Resource resource = new ClassPathResource(MyBatisCompiledMappers.getLocation(compiledMapper));
+          if (!resource.exists()) {
+            throw new IllegalStateException("Cannot parse the compiled mapper xml file because it is not found. The "
+                + "XML location is '" + resource + "'. Use the XMLLanguageDriver as default scripting language or "
+                + "disable 'excludeCompiledMapperResources' of @MyBatisResourcesScan.");
+          }
+          try (InputStream in = resource.getInputStream()) {
+            new XMLMapperBuilder(in, config, resource.toString(), config.getSqlFragments()).parse();
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+      }
+      return super.build(config);
+    }
+
+  }
+
 }
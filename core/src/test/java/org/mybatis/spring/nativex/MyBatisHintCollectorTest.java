@@ -0,0 +1,106 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import static org.springframework.nativex.hint.TypeAccess.DECLARED_METHODS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_CONSTRUCTORS;
+import static org.springframework.nativex.hint.TypeAccess.PUBLIC_METHODS;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.nativex.entity.City;
+import org.mybatis.spring.nativex.entity.Country;
+import org.mybatis.spring.nativex.mapper.XmlMapper;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.DefaultNativeReflectionEntry;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.nativex.hint.TypeAccess;
+
+/**
+ * Test cases for {@link MyBatisHintCollector}.
+ *
+ * @author Kazuki Shimizu
+ */
+class MyBatisHintCollectorTest {
+
+  @Test
+  void registerOncePerEntry() {
+    NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
+    MyBatisHintCollector hints = MyBatisHintCollector.of(new DefaultListableBeanFactory(), registry,
+        MyBatisHintCollectorTest.class);
+    hints.registerType(City.class, PUBLIC_CONSTRUCTORS, PUBLIC_METHODS);
+    hints.registerType(City.class, PUBLIC_METHODS);
+    hints.registerType(City.class, PUBLIC_METHODS, DECLARED_METHODS);
+    hints.registerProxy(XmlMapper.class);
+    hints.registerProxy(XmlMapper.class);
+    hints.registerResource("xml/XmlMapper.xml");
+    hints.registerResource("xml/XmlMapper.xml");
+    Assertions.assertThat(hints.skipIfUnnecessary(int.class)).isTrue();
+    Assertions.assertThat(hints.skipIfUnnecessary(String.class)).isTrue();
+    Assertions.assertThat(hints.skipIfUnnecessary(City.class)).isFalse();
+
+    Assertions.assertThat(registry.reflection().reflectionEntries()).singleElement()
+        .satisfies(x -> Assertions.assertThat(x.getAccess().toArray())
+            .isEqualTo(new TypeAccess[] { PUBLIC_CONSTRUCTORS, PUBLIC_METHODS, DECLARED_METHODS }));
+    Assertions.assertThat(registry.proxy().getEntries()).hasSize(1);
+    Assertions.assertThat(registry.resources().toResourcesDescriptor().getPatterns())
+        .containsExactly("xml/XmlMapper.xml");
+    Assertions.assertThat(hints.getStatistics()).satisfies(x -> {
+      Assertions.assertThat(x.getRegistered()).isEqualTo(4);
+      Assertions.assertThat(x.getDeduplicated()).isEqualTo(3);
+      Assertions.assertThat(x.getSkipped()).isEqualTo(2);
+    });
+  }
+
+  @Test
+  void shareEntriesBetweenProcessors() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("xmlMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", XmlMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    beanFactory.registerBeanDefinition("holder",
+        BeanDefinitionBuilder.genericBeanDefinition(MyBatisScannedResourcesHolder.class)
+            .addPropertyValue("reflectionClasses", new Class<?>[] { City.class, Country.class })
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
+    new MyBatisMapperNativeConfigurationProcessor().process(beanFactory, registry);
+    new MyBatisScannedResourcesNativeConfigurationProcessor().process(beanFactory, registry);
+
+    Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+        .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+    Assertions.assertThat(entries).containsOnlyKeys(XmlMapper.class, City.class, Country.class);
+    // City has already been registered as the return type of mapper method
+    MyBatisHintCollector.Statistics scannedResourcesStatistics = MyBatisHintCollector
+        .of(beanFactory, registry, MyBatisScannedResourcesNativeConfigurationProcessor.class).getStatistics();
+    Assertions.assertThat(scannedResourcesStatistics.getRegistered()).isEqualTo(1);
+    Assertions.assertThat(scannedResourcesStatistics.getDeduplicated()).isEqualTo(1);
+    Assertions.assertThat(scannedResourcesStatistics.getSkipped()).isZero();
+    // mapper interface, proxy, return type and mapper xml file are registered, and the parameter type(int) is skipped
+    MyBatisHintCollector.Statistics mapperStatistics = MyBatisHintCollector
+        .of(beanFactory, registry, MyBatisMapperNativeConfigurationProcessor.class).getStatistics();
+    Assertions.assertThat(mapperStatistics.getRegistered()).isEqualTo(4);
+    Assertions.assertThat(mapperStatistics.getSkipped()).isEqualTo(1);
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.nativex.mapper.XmlMapper;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.beans.factory.config.RuntimeBeanNameReference;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Test cases for {@link MyBatisHintReport}.
+ *
+ * @author Kazuki Shimizu
+ */
+class MyBatisHintReportTest {
+
+  @Test
+  void report(@TempDir Path tempDir) throws IOException {
+    Path location = tempDir.resolve("report/hint-report.json");
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.native.hint-report.enabled=true",
+        "mybatis.native.hint-report.location=" + location).applyTo(context);
+    context.registerBean(ConfigurationForReport.class);
+    context.refresh();
+    DefaultListableBeanFactory beanFactory = context.getDefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("xmlMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", XmlMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
+    new MyBatisMapperNativeConfigurationProcessor().process(beanFactory, registry);
+    new MyBatisScannedResourcesNativeConfigurationProcessor().process(beanFactory, registry);
+
+    String report = new String(Files.readAllBytes(location), StandardCharsets.UTF_8);
+    long fooMapperBytes = new ClassPathResource("mapper/sub1/FooMapper.xml").contentLength();
+    long barMapperBytes = new ClassPathResource("mapper/sub1/BarMapper.xml").contentLength();
+    long anyMapperBytes = new ClassPathResource("mapper/sub2/AnyMapper.xml").contentLength();
+    // mapper
+    Assertions.assertThat(report).contains("\"name\" : \"org.mybatis.spring.nativex.mapper.XmlMapper\"",
+        "\"org.mybatis.spring.nativex.entity.City\"",
+        "{ \"location\" : \"org/mybatis/spring/nativex/mapper/XmlMapper.xml\", \"estimatedBytes\" : 0 }");
+    // scan
+    Assertions.assertThat(report).contains("\"declaringClass\" : \"" + ConfigurationForReport.class.getName() + "\"",
+        "{ \"location\" : \"mapper/sub1/FooMapper.xml\", \"estimatedBytes\" : " + fooMapperBytes + " }",
+        "\"estimatedBytes\" : " + (fooMapperBytes + barMapperBytes + anyMapperBytes),
+        "{ \"pattern\" : \"mapper/sub1/*.xml\", \"resources\" : 2, \"estimatedBytes\" : "
+            + (fooMapperBytes + barMapperBytes) + " }",
+        "{ \"pattern\" : \"mapper/sub2/*.xml\", \"resources\" : 1, \"estimatedBytes\" : " + anyMapperBytes + " }");
+  }
+
+  @Test
+  void notReport(@TempDir Path tempDir) {
+    Path location = tempDir.resolve("hint-report.json");
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.native.hint-report.location=" + location).applyTo(context);
+    context.registerBean(ConfigurationForReport.class);
+    context.refresh();
+    NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
+    new MyBatisScannedResourcesNativeConfigurationProcessor().process(context.getDefaultListableBeanFactory(),
+        registry);
+
+    Assertions.assertThat(location).doesNotExist();
+    Assertions.assertThat(context.getBeanFactory()
+        .getBeanDefinition(context.getBeanNamesForType(MyBatisScannedResourcesHolder.class)[0]).attributeNames())
+        .isEmpty();
+  }
+
+  @MyBatisResourcesScan(mapperLocationPatterns = "mapper/sub1/*.xml", resourceLocationPatterns = "mapper/sub2/*.xml")
+  @Configuration
+  static class ConfigurationForReport {
+
+  }
+
+}
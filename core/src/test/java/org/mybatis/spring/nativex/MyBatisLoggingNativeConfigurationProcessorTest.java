@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.logging.jdk14.Jdk14LoggingImpl;
+import org.apache.ibatis.logging.nologging.NoLoggingImpl;
+import org.apache.ibatis.logging.slf4j.Slf4jImpl;
+import org.apache.ibatis.logging.stdout.StdOutImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.DefaultNativeReflectionEntry;
+import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+class MyBatisLoggingNativeConfigurationProcessorTest {
+
+  @Test
+  void detected() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    Set<Class<?>> types = registry.reflection().reflectionEntries().map(DefaultNativeReflectionEntry::getType)
+        .collect(Collectors.toSet());
+    Assertions.assertThat(types).containsExactly(Slf4jImpl.class);
+  }
+
+  @Test
+  void configuredByProperty() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.configuration.log-impl=" + Jdk14LoggingImpl.class.getName()).applyTo(context);
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    Set<Class<?>> types = registry.reflection().reflectionEntries().map(DefaultNativeReflectionEntry::getType)
+        .collect(Collectors.toSet());
+    Assertions.assertThat(types).containsExactlyInAnyOrder(Slf4jImpl.class, Jdk14LoggingImpl.class);
+  }
+
+  @Test
+  void configuredByConfigFile() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.config-location=classpath:logging/mybatis-config.xml").applyTo(context);
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    Set<Class<?>> types = registry.reflection().reflectionEntries().map(DefaultNativeReflectionEntry::getType)
+        .collect(Collectors.toSet());
+    Assertions.assertThat(types).containsExactlyInAnyOrder(Slf4jImpl.class, StdOutImpl.class);
+  }
+
+  @Test
+  void detectLogImpl() {
+    Assertions.assertThat(MyBatisLoggingNativeConfigurationProcessor.detectLogImpl(getClass().getClassLoader()))
+        .isEqualTo(Slf4jImpl.class);
+    ClassLoader noLoggingLibraryClassLoader = new ClassLoader(getClass().getClassLoader()) {
+      @Override
+      protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (name.startsWith("org.slf4j.") || name.startsWith("org.apache.commons.logging.")
+            || name.startsWith("java.util.logging.")) {
+          throw new ClassNotFoundException(name);
+        }
+        return super.loadClass(name, resolve);
+      }
+    };
+    Assertions.assertThat(MyBatisLoggingNativeConfigurationProcessor.detectLogImpl(noLoggingLibraryClassLoader))
+        .isEqualTo(NoLoggingImpl.class);
+  }
+
+  private NativeConfigurationRegistry process(DefaultListableBeanFactory beanFactory) {
+    NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
+    new MyBatisLoggingNativeConfigurationProcessor().process(beanFactory, registry);
+    return registry;
+  }
+
+}
@@ -29,23 +29,37 @@ import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_CONSTRUCT
 import static org.springframework.nativex.hint.TypeAccess.QUERY_PUBLIC_METHODS;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.nativex.component.BarService;
+import org.mybatis.spring.nativex.component.FooTypeHandler;
+import org.mybatis.spring.nativex.component2.AnyTypeHandler;
+import org.mybatis.spring.nativex.entity.City;
+import org.mybatis.spring.nativex.entity.Country;
+import org.mybatis.spring.nativex.mapper.CacheMapper;
 import org.mybatis.spring.nativex.mapper.Sample2Mapper;
 import org.mybatis.spring.nativex.mapper.Sample3Mapper;
+import org.mybatis.spring.nativex.mapper.PreciseMapper;
 import org.mybatis.spring.nativex.mapper.SampleMapper;
+import org.mybatis.spring.nativex.mapper.XmlMapper;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.DefaultNativeReflectionEntry;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeProxyEntry;
 import org.springframework.beans.factory.config.RuntimeBeanNameReference;
 import org.springframework.beans.factory.support.BeanDefinitionBuilder;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.core.env.StandardEnvironment;
 import org.springframework.nativex.domain.proxies.JdkProxyDescriptor;
 import org.springframework.nativex.domain.proxies.ProxiesDescriptor;
 import org.springframework.nativex.hint.TypeAccess;
@@ -61,6 +75,9 @@ class MyBatisMapperNativeConfigurationProcessorTest {
       PUBLIC_METHODS, DECLARED_CLASSES, DECLARED_CONSTRUCTORS, DECLARED_FIELDS, DECLARED_METHODS,
       QUERY_DECLARED_METHODS, QUERY_PUBLIC_METHODS, QUERY_DECLARED_CONSTRUCTORS, QUERY_PUBLIC_CONSTRUCTORS };
 
+  private static final TypeAccess[] CACHE_TYPE_ACCESSES = { PUBLIC_CONSTRUCTORS, PUBLIC_METHODS,
+      DECLARED_CONSTRUCTORS, DECLARED_METHODS };
+
   @Test
   void registerMapperInterfaceAndRelationships() {
     DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
@@ -125,6 +142,226 @@ class MyBatisMapperNativeConfigurationProcessorTest {
     }
   }
 
+  @Test
+  void excludeCompiledMapperResource() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("sampleMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", SampleMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    beanFactory.registerBeanDefinition("holder",
+        BeanDefinitionBuilder.genericBeanDefinition(MyBatisScannedResourcesHolder.class)
+            .addPropertyValue("excludedResourceLocations",
+                Collections.singleton("org/mybatis/spring/nativex/mapper/SampleMapper.xml"))
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // resource hint
+    {
+      Set<String> resources = registry.resources().toResourcesDescriptor().getPatterns();
+      Assertions.assertThat(resources).isEmpty();
+    }
+  }
+
+  @Test
+  void registerTypesOfMapperXmlFiles() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("xmlMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", XmlMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    beanFactory.registerBeanDefinition("holder",
+        BeanDefinitionBuilder.genericBeanDefinition(MyBatisScannedResourcesHolder.class)
+            .addPropertyValue("typeAliasNames", new String[] { "City" })
+            .addPropertyValue("typeAliasTypes", new Class<?>[] { City.class })
+            .addPropertyValue("mapperLocations", new String[] { "xml/XmlMapper.xml", "xml/XmlStatements.xml" })
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      Assertions.assertThat(entries).containsOnlyKeys(XmlMapper.class, City.class, Country.class, BarService.class,
+          FooTypeHandler.class, AnyTypeHandler.class);
+      Assertions.assertThat(entries.values())
+          .allSatisfy(x -> Assertions.assertThat(x.getAccess().toArray()).isEqualTo(TYPE_ACCESSES));
+    }
+    // proxy hint
+    {
+      List<NativeProxyEntry> entries = new ArrayList<>(registry.proxy().getEntries());
+      Assertions.assertThat(entries).hasSize(1);
+      ProxiesDescriptor proxiesDescriptor = new ProxiesDescriptor();
+      entries.forEach(x -> x.contribute(proxiesDescriptor));
+      List<JdkProxyDescriptor> jdkProxyDescriptors = new ArrayList<>(proxiesDescriptor.getProxyDescriptors());
+      Assertions.assertThat(jdkProxyDescriptors).hasSize(1);
+      Assertions.assertThat(jdkProxyDescriptors.get(0)).satisfies(x -> {
+        Assertions.assertThat(x.isClassProxy()).isFalse();
+        Assertions.assertThat(x.getTypes()).containsExactlyInAnyOrder("org.mybatis.spring.nativex.mapper.XmlMapper");
+      });
+    }
+  }
+
+  @Test
+  void registerMapperInterfaceOfMapperXmlFile() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("holder",
+        BeanDefinitionBuilder.genericBeanDefinition(MyBatisScannedResourcesHolder.class)
+            .addPropertyValue("mapperLocations", Collections.singleton("xml/XmlMapper.xml")).getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      // resolve "City" as the return type of mapper method because it is not registered as type alias
+      Assertions.assertThat(entries).containsOnlyKeys(XmlMapper.class, City.class, Country.class, BarService.class,
+          FooTypeHandler.class);
+    }
+    // proxy hint
+    {
+      Assertions.assertThat(registry.proxy().getEntries()).hasSize(1);
+    }
+    // resource hint
+    {
+      Assertions.assertThat(registry.resources().toResourcesDescriptor().getPatterns()).isEmpty();
+    }
+  }
+
+  @Test
+  void registerPreciseReflectionHints() throws NoSuchMethodException, NoSuchFieldException {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    StandardEnvironment environment = new StandardEnvironment();
+    TestPropertyValues.of("mybatis.native.precise-reflection-hints=true").applyTo(environment);
+    beanFactory.registerSingleton("environment", environment);
+    beanFactory.registerBeanDefinition("preciseMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", PreciseMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      Assertions.assertThat(entries).hasSize(3);
+      // mapper interface
+      Assertions.assertThat(entries.get(PreciseMapper.class))
+          .satisfies(x -> Assertions.assertThat(x.getAccess().toArray()).isEqualTo(TYPE_ACCESSES));
+      // mapper method return type
+      Assertions.assertThat(entries.get(PreciseMapper.Person.class)).satisfies(x -> {
+        Assertions.assertThat(x.getAccess()).isEmpty();
+        Assertions.assertThat(x.getConstructors()).containsExactlyInAnyOrder(
+            PreciseMapper.Person.class.getDeclaredConstructor(),
+            PreciseMapper.Person.class.getDeclaredConstructor(String.class));
+        Assertions.assertThat(x.getMethods()).containsExactlyInAnyOrder(
+            PreciseMapper.Person.class.getDeclaredMethod("getName"),
+            PreciseMapper.Person.class.getDeclaredMethod("setName", String.class),
+            PreciseMapper.Person.class.getDeclaredMethod("isAdult"));
+        Assertions.assertThat(x.getFields()).containsExactlyInAnyOrder(
+            PreciseMapper.Person.class.getDeclaredField("age"));
+      });
+      // super class of mapper method return type
+      Assertions.assertThat(entries.get(PreciseMapper.BaseEntity.class)).satisfies(x -> {
+        Assertions.assertThat(x.getAccess()).isEmpty();
+        Assertions.assertThat(x.getConstructors()).isEmpty();
+        Assertions.assertThat(x.getMethods()).containsExactlyInAnyOrder(
+            PreciseMapper.BaseEntity.class.getDeclaredMethod("getId"),
+            PreciseMapper.BaseEntity.class.getDeclaredMethod("setId", long.class));
+        Assertions.assertThat(x.getFields()).isEmpty();
+      });
+    }
+  }
+
+  @Test
+  void registerPreciseReflectionHintsOfInterfaceDefaultMethods() throws NoSuchMethodException, NoSuchFieldException {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    StandardEnvironment environment = new StandardEnvironment();
+    TestPropertyValues.of("mybatis.native.precise-reflection-hints=true").applyTo(environment);
+    beanFactory.registerSingleton("environment", environment);
+    beanFactory.registerBeanDefinition("defaultMethodMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", PreciseMapper.DefaultMethodMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      Assertions.assertThat(entries).hasSize(4);
+      // mapper method return type
+      Assertions.assertThat(entries.get(PreciseMapper.Member.class)).satisfies(x -> {
+        Assertions.assertThat(x.getAccess()).isEmpty();
+        Assertions.assertThat(x.getMethods()).containsExactlyInAnyOrder(
+            PreciseMapper.Member.class.getDeclaredMethod("getName"),
+            PreciseMapper.Member.class.getDeclaredMethod("setName", String.class));
+        // static fields are collected by the Reflector too
+        Assertions.assertThat(x.getFields()).containsExactlyInAnyOrder(
+            PreciseMapper.Member.class.getDeclaredField("TYPE"),
+            PreciseMapper.Member.class.getDeclaredField("defaultName"));
+      });
+      // interface of mapper method return type (default method getter)
+      Assertions.assertThat(entries.get(PreciseMapper.Named.class)).satisfies(x -> {
+        Assertions.assertThat(x.getAccess()).isEmpty();
+        Assertions.assertThat(x.getConstructors()).isEmpty();
+        Assertions.assertThat(x.getMethods()).containsExactlyInAnyOrder(
+            PreciseMapper.Named.class.getDeclaredMethod("getName"),
+            PreciseMapper.Named.class.getDeclaredMethod("getDisplayName"));
+        Assertions.assertThat(x.getFields()).isEmpty();
+      });
+      // super class of mapper method return type
+      Assertions.assertThat(entries.get(PreciseMapper.BaseEntity.class)).satisfies(x -> Assertions
+          .assertThat(x.getMethods()).hasSize(2));
+    }
+  }
+
+  @Test
+  void registerCacheTypesOfMapperInterface() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("cacheMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", CacheMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    beanFactory.registerBeanDefinition("cacheRefMapper",
+        BeanDefinitionBuilder.rootBeanDefinition(MapperFactoryBean.class)
+            .addPropertyValue("mapperInterface", CacheMapper.CacheRefMapper.class)
+            .addPropertyValue("sqlSessionTemplate", new RuntimeBeanNameReference("sqlSessionTemplate"))
+            .getBeanDefinition());
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      // eviction decorator of custom cache implementation(WeakCache) is not registered
+      Assertions.assertThat(entries).containsOnlyKeys(CacheMapper.class, CacheMapper.CacheRefMapper.class,
+          PerpetualCache.class, FifoCache.class, CacheMapper.CustomCache.class);
+      Assertions.assertThat(entries.get(CacheMapper.CustomCache.class))
+          .satisfies(x -> Assertions.assertThat(x.getAccess().toArray()).isEqualTo(CACHE_TYPE_ACCESSES));
+      Assertions.assertThat(entries.get(FifoCache.class))
+          .satisfies(x -> Assertions.assertThat(x.getAccess().toArray()).isEqualTo(CACHE_TYPE_ACCESSES));
+    }
+  }
+
+  @Test
+  void registerCacheTypesOfMapperXmlFiles() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("holder",
+        BeanDefinitionBuilder.genericBeanDefinition(MyBatisScannedResourcesHolder.class)
+            .addPropertyValue("mapperLocations", new String[] { "xml/CacheRefMapper.xml" }).getBeanDefinition());
+    StandardEnvironment environment = new StandardEnvironment();
+    TestPropertyValues.of("mybatis.mapper-locations=classpath*:xml/CacheMapper.xml").applyTo(environment);
+    beanFactory.registerSingleton("environment", environment);
+    NativeConfigurationRegistry registry = process(beanFactory);
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      // <cache-ref> refers to the namespace that declared by @CacheNamespace
+      Assertions.assertThat(entries).containsOnlyKeys(PerpetualCache.class, FifoCache.class, SoftCache.class);
+    }
+  }
+
   @Test
   void registerMultiMapperInterface() {
     DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
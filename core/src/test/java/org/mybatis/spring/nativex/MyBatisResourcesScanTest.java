@@ -15,21 +15,35 @@
  */
 package org.mybatis.spring.nativex;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mybatis.spring.nativex.component.AbstractTypeHandler;
 import org.mybatis.spring.nativex.component.BarService;
 import org.mybatis.spring.nativex.component.BarTypeHandler;
 import org.mybatis.spring.nativex.component.FooTypeHandler;
 import org.mybatis.spring.nativex.component.TypeHandlers;
 import org.mybatis.spring.nativex.component2.AnyTypeHandler;
+import org.mybatis.spring.nativex.component3.MappedTypeHandler;
 import org.mybatis.spring.nativex.entity.City;
 import org.mybatis.spring.nativex.entity.Country;
 import org.mybatis.spring.nativex.marker.StandardEntity;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.nativex.hint.TypeAccess;
@@ -43,6 +57,8 @@ class MyBatisResourcesScanTest {
     context.refresh();
     MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
     Assertions.assertThat(holder.getTypeAliasesClasses()).containsExactlyInAnyOrder(City.class, Country.class);
+    Assertions.assertThat(holder.getTypeAliasNames()).containsExactly("City", "Country");
+    Assertions.assertThat(holder.getTypeAliasTypes()).containsExactly(City.class, Country.class);
     Assertions.assertThat(holder.getMapperLocations()).isEmpty();
     Assertions.assertThat(holder.getTypeHandlerClasses()).isEmpty();
     Assertions.assertThat(holder.getReflectionClasses()).containsExactlyInAnyOrder(City.class, Country.class);
@@ -50,6 +66,30 @@ class MyBatisResourcesScanTest {
     Assertions.assertThat(holder.getReflectionTypeAccesses()).isEmpty();
   }
 
+  @Test
+  void holdScannedResourcesAsArray() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForScanTypeAliases.class);
+    context.refresh();
+    String beanName = context.getBeanNamesForType(MyBatisScannedResourcesHolder.class)[0];
+    MutablePropertyValues propertyValues = context.getBeanFactory().getBeanDefinition(beanName).getPropertyValues();
+    Assertions.assertThat(propertyValues.get("typeAliasesClasses"))
+        .isEqualTo(new Class<?>[] { City.class, Country.class });
+    Assertions.assertThat(propertyValues.get("reflectionClasses"))
+        .isEqualTo(new Class<?>[] { City.class, Country.class });
+    Assertions.assertThat(propertyValues.get("mapperLocations")).isEqualTo(new String[0]);
+    Assertions.assertThat(propertyValues.get("resourceLocations")).isEqualTo(new String[0]);
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getTypeAliasesClasses()).containsExactly(City.class, Country.class);
+    // the view of scanned resources is created once
+    Assertions.assertThat(holder.getTypeAliasesClasses()).isSameAs(holder.getTypeAliasesClasses());
+    Assertions.assertThat(holder.getMapperLocations()).isSameAs(holder.getMapperLocations());
+    Assertions.assertThatThrownBy(() -> holder.getTypeAliasesClasses().add(String.class))
+        .isInstanceOf(UnsupportedOperationException.class);
+    Assertions.assertThatThrownBy(() -> holder.getTypeAliasesClasses().iterator().remove())
+        .isInstanceOf(UnsupportedOperationException.class);
+  }
+
   @Test
   void scanTypeAliasesWithSupperType() {
     AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -60,6 +100,58 @@ class MyBatisResourcesScanTest {
     Assertions.assertThat(holder.getReflectionClasses()).containsExactlyInAnyOrder(Country.class);
   }
 
+  @Test
+  void scanTypeAliasesInParallel() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.native.parallel-scan=true").applyTo(context);
+    context.registerBean(ConfigurationForScanTypeAliasesWithMultiPackage.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getTypeAliasesClasses()).containsExactly(AbstractTypeHandler.class,
+        BarService.class, BarTypeHandler.class, FooTypeHandler.class, TypeHandlers.class, City.class, Country.class);
+    Assertions.assertThat(holder.getReflectionClasses()).containsExactly(AbstractTypeHandler.class,
+        BarService.class, BarTypeHandler.class, FooTypeHandler.class, TypeHandlers.class, City.class, Country.class);
+  }
+
+  @Test
+  void scanWithScanCache(@TempDir Path tempDir) throws IOException {
+    Path location = tempDir.resolve("scan-cache.properties");
+    MyBatisScannedResourcesHolder holder = scanUsingScanCache(location);
+    Assertions.assertThat(holder.getTypeHandlerClasses()).contains(StringTypeHandler.class, IntegerTypeHandler.class);
+    Assertions.assertThat(holder.getResourceLocations()).contains("org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
+    Assertions.assertThat(location).exists();
+
+    // Replace cached scan results of jar file for verifying that cached results are used
+    Properties entries = new Properties();
+    try (InputStream in = Files.newInputStream(location)) {
+      entries.load(in);
+    }
+    Assertions.assertThat(entries).isNotEmpty();
+    for (String key : entries.stringPropertyNames()) {
+      String value = entries.getProperty(key);
+      String fingerprint = value.substring(0, value.indexOf('|') + 1);
+      entries.setProperty(key, fingerprint + (key.contains("|classes:") ? StringTypeHandler.class.getName()
+          : "org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd"));
+    }
+    try (OutputStream out = Files.newOutputStream(location)) {
+      entries.store(out, null);
+    }
+
+    holder = scanUsingScanCache(location);
+    Assertions.assertThat(holder.getTypeHandlerClasses()).containsExactly(StringTypeHandler.class);
+    Assertions.assertThat(holder.getResourceLocations())
+        .containsExactly("org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
+  }
+
+  private MyBatisScannedResourcesHolder scanUsingScanCache(Path location) {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.native.scan-cache.enabled=true", "mybatis.native.scan-cache.location=" + location)
+        .applyTo(context);
+    context.registerBean(ConfigurationForScanWithScanCache.class);
+    context.refresh();
+    return context.getBean(MyBatisScannedResourcesHolder.class);
+  }
+
   @Test
   void scanTypeAliasesWithMultiPackage() {
     AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -86,6 +178,11 @@ class MyBatisResourcesScanTest {
     Assertions.assertThat(holder.getMapperLocations()).isEmpty();
     Assertions.assertThat(holder.getTypeHandlerClasses()).containsExactlyInAnyOrder(FooTypeHandler.class,
         BarTypeHandler.class, TypeHandlers.InnerTypeHandler.class);
+    Assertions.assertThat(holder.getTypeHandlerTypes()).containsExactly(BarTypeHandler.class, FooTypeHandler.class,
+        TypeHandlers.InnerTypeHandler.class);
+    Assertions.assertThat(holder.getTypeHandlerJavaTypes()).containsExactly(Integer.class, String.class, void.class);
+    Assertions.assertThat(holder.getTypeHandlerJdbcTypes()).containsExactly("", "", "");
+    Assertions.assertThat(holder.getTypeHandlerJavaTypeArguments()).containsExactly(false, false, false);
     Assertions.assertThat(holder.getReflectionClasses()).containsExactlyInAnyOrder(FooTypeHandler.class,
         BarTypeHandler.class, TypeHandlers.InnerTypeHandler.class);
     Assertions.assertThat(holder.getResourceLocations()).isEmpty();
@@ -104,6 +201,21 @@ class MyBatisResourcesScanTest {
         BarTypeHandler.class, AnyTypeHandler.class, TypeHandlers.InnerTypeHandler.class);
   }
 
+  @Test
+  void scanTypeHandlerWithMappedTypes() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForScanTypeHandlerWithMappedTypes.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getTypeHandlerTypes()).containsOnly(MappedTypeHandler.class).hasSize(6);
+    Assertions.assertThat(holder.getTypeHandlerJavaTypes()).containsExactly(String.class, String.class, String.class,
+        StringBuilder.class, StringBuilder.class, StringBuilder.class);
+    Assertions.assertThat(holder.getTypeHandlerJdbcTypes()).containsExactly("VARCHAR", "CLOB", "", "VARCHAR", "CLOB",
+        "");
+    Assertions.assertThat(holder.getTypeHandlerJavaTypeArguments()).containsExactly(true, true, true, true, true,
+        true);
+  }
+
   @Test
   void scanMapperLocations() {
     AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -132,6 +244,72 @@ class MyBatisResourcesScanTest {
         "org/apache/ibatis/builder/xml/mybatis-3-config.dtd", "org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
   }
 
+  @Test
+  void compileMappers() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForCompileMappers.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getMapperLocations()).containsExactlyInAnyOrder("compile/StaticMapper.xml",
+        "compile/DynamicMapper.xml");
+    Assertions.assertThat(holder.getCompiledMappers()).hasSize(1);
+    Assertions.assertThat(holder.getCompiledMappers().stream().map(MyBatisCompiledMappers::getLocation))
+        .containsExactly("compile/StaticMapper.xml");
+  }
+
+  @Test
+  void compileMappersWithExplicitTypeHandler() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForCompileMappers.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    org.apache.ibatis.session.Configuration configuration = new org.apache.ibatis.session.Configuration();
+    configuration.getTypeHandlerRegistry().register(String.class, CustomStringTypeHandler.class);
+    holder.getCompiledMappers().forEach(x -> MyBatisCompiledMappers.register(x, configuration));
+    Assertions.assertThat(configuration.getResultMap("compile.StaticMapper.nameResultMap").getResultMappings())
+        .extracting(ResultMapping::getProperty, x -> x.getTypeHandler().getClass())
+        .containsExactly(Assertions.tuple("id", IntegerTypeHandler.class),
+            Assertions.tuple("name", StringTypeHandler.class),
+            Assertions.tuple("description", CustomStringTypeHandler.class));
+    Assertions
+        .assertThat(configuration.getMappedStatement("compile.StaticMapper.selectName").getBoundSql("mybatis")
+            .getParameterMappings())
+        .extracting(x -> (Object) x.getTypeHandler().getClass())
+        .containsExactly(StringTypeHandler.class, CustomStringTypeHandler.class);
+  }
+
+  @Test
+  void notCompileMappersOutsideAotPhase() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.setClassLoader(new FilteredClassLoader("org.springframework.aot"));
+    context.registerBean(ConfigurationForCompileMappers.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getMapperLocations()).containsExactlyInAnyOrder("compile/StaticMapper.xml",
+        "compile/DynamicMapper.xml");
+    Assertions.assertThat(holder.getCompiledMappers()).isEmpty();
+  }
+
+  @Test
+  void failCompileMappersWhenFragmentIsIncludedFromOtherMapper() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForCompileMappersWithInclude.class);
+    Assertions.assertThatThrownBy(context::refresh).isInstanceOf(IllegalStateException.class)
+        .hasMessage("The sql fragment 'compile.include.FragmentMapper.columns' of compiled mapper xml file"
+            + " 'compile/include/FragmentMapper.xml' is included from 'compile/include/IncludingMapper.xml'."
+            + " Sql fragments of compiled mapper xml file cannot be included from other mapper xml file,"
+            + " please move the sql fragment or disable 'compileMappers' of @MyBatisResourcesScan.");
+  }
+
+  @Test
+  void notCompileMappers() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForScanMapperLocations.class);
+    context.refresh();
+    MyBatisScannedResourcesHolder holder = context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getCompiledMappers()).isEmpty();
+  }
+
   @Test
   void scanReflectionType() {
     AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -190,6 +368,17 @@ class MyBatisResourcesScanTest {
         "org/apache/ibatis/builder/xml/mybatis-3-config.dtd", "org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
   }
 
+  @Test
+  void releaseScannerAfterRegisteringBeanDefinitions() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForRepeat.class);
+    context.refresh();
+    Assertions.assertThat(context.getBeanNamesForType(MyBatisScannedResourcesHolder.class)).hasSize(5);
+    Assertions.assertThat(context.containsBean(MyBatisScannedResourcesHolder.ScannerReleaser.BEAN_NAME)).isTrue();
+    Assertions.assertThat(MyBatisScannedResourcesHolder.Registrar.SCANNERS)
+        .doesNotContainKey(context.getDefaultListableBeanFactory());
+  }
+
   @Test
   void scanRepeat() {
     AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
@@ -235,6 +424,11 @@ class MyBatisResourcesScanTest {
   static class ConfigurationForScanTypeAliasesWithMultiPackage {
   }
 
+  @MyBatisResourcesScan(typeHandlerPackages = "org.apache.ibatis.type", resourceLocationPatterns = "classpath*:org/apache/ibatis/builder/xml/*.dtd")
+  @Configuration
+  static class ConfigurationForScanWithScanCache {
+  }
+
   @MyBatisResourcesScan(typeHandlerPackages = "org.mybatis.spring.nativex.component")
   @Configuration
   static class ConfigurationForScanTypeHandler {
@@ -246,6 +440,11 @@ class MyBatisResourcesScanTest {
   static class ConfigurationForScanTypeHandlerWithMultiPackage {
   }
 
+  @MyBatisResourcesScan(typeHandlerPackages = "org.mybatis.spring.nativex.component3")
+  @Configuration
+  static class ConfigurationForScanTypeHandlerWithMappedTypes {
+  }
+
   @MyBatisResourcesScan(mapperLocationPatterns = "mapper/sub1/*.*")
   @Configuration
   static class ConfigurationForScanMapperLocations {
@@ -256,6 +455,19 @@ class MyBatisResourcesScanTest {
   static class ConfigurationForScanMapperLocationsWithMultiPattern {
   }
 
+  @MyBatisResourcesScan(mapperLocationPatterns = "compile/*.xml", compileMappers = true)
+  @Configuration
+  static class ConfigurationForCompileMappers {
+  }
+
+  public static class CustomStringTypeHandler extends StringTypeHandler {
+  }
+
+  @MyBatisResourcesScan(mapperLocationPatterns = "compile/include/*.xml", compileMappers = true)
+  @Configuration
+  static class ConfigurationForCompileMappersWithInclude {
+  }
+
   @MyBatisResourcesScan(reflectionTypePackages = "org.mybatis.spring.nativex.entity", typeAccesses = TypeAccess.DECLARED_CLASSES)
   @Configuration
   static class ConfigurationForScanReflectionType {
@@ -0,0 +1,176 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.IntegerTypeHandler;
+import org.apache.ibatis.type.StringTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.nativex.candidate.AbstractCandidate;
+import org.mybatis.spring.nativex.candidate.CandidateType;
+import org.mybatis.spring.nativex.candidate.ConcreteCandidate;
+import org.mybatis.spring.nativex.candidate.OtherType;
+import org.mybatis.spring.nativex.component.BarService;
+import org.mybatis.spring.nativex.component.BarTypeHandler;
+import org.mybatis.spring.nativex.component.FooTypeHandler;
+import org.mybatis.spring.nativex.component.TypeHandlers;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+class MyBatisResourcesScannerTest {
+
+  @Test
+  void reuseScanResultsOfSameLocationPattern() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String[] locationPatterns = { "classpath*:compile/*.xml" };
+    Assertions.assertThat(scanner.scanResources(locationPatterns)).containsExactly("compile/DynamicMapper.xml",
+        "compile/StaticMapper.xml");
+
+    Path addedFile = new ClassPathResource("compile/").getFile().toPath().resolve("AddedMapper.xml");
+    Files.write(addedFile, new byte[0]);
+    try {
+      Assertions.assertThat(scanner.scanResources(locationPatterns)).containsExactly("compile/DynamicMapper.xml",
+          "compile/StaticMapper.xml");
+      Assertions.assertThat(new MyBatisResourcesScanner(new StandardEnvironment()).scanResources(locationPatterns))
+          .containsExactly("compile/AddedMapper.xml", "compile/DynamicMapper.xml", "compile/StaticMapper.xml");
+    } finally {
+      Files.delete(addedFile);
+    }
+  }
+
+  @Test
+  void scanClassesWithDifferentFilter() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String[] packagePatterns = { "org.mybatis.spring.nativex.component" };
+    Assertions.assertThat(scanner.scanClasses("typeHandler", packagePatterns, TypeHandler.class, false, true))
+        .containsExactly(BarTypeHandler.class, FooTypeHandler.class, TypeHandlers.InnerTypeHandler.class);
+    Assertions.assertThat(scanner.scanClasses("reflectionType", packagePatterns, void.class, false, false))
+        .containsExactly(BarService.class, BarTypeHandler.class, FooTypeHandler.class, TypeHandlers.class);
+  }
+
+  @Test
+  void scanAfterClearingCaches() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String[] packagePatterns = { "org.mybatis.spring.nativex.component" };
+    Set<Class<?>> typeHandlerClasses = scanner.scanClasses("typeHandler", packagePatterns, TypeHandler.class, false,
+        true);
+    Set<String> resourcePaths = scanner.scanResources(new String[] { "classpath:org/apache/ibatis/builder/xml/*.dtd" });
+
+    scanner.clearCaches();
+
+    Assertions.assertThat(scanner.scanClasses("typeHandler", packagePatterns, TypeHandler.class, false, true))
+        .isEqualTo(typeHandlerClasses);
+    Assertions.assertThat(scanner.scanResources(new String[] { "classpath:org/apache/ibatis/builder/xml/*.dtd" }))
+        .isEqualTo(resourcePaths);
+    Assertions.assertThat(scanner.scanClasses("reflectionType", packagePatterns, void.class, false, false))
+        .containsExactly(BarService.class, BarTypeHandler.class, FooTypeHandler.class, TypeHandlers.class);
+    Assertions.assertThat(scanner.scanResources(new String[] { "classpath*:org/apache/ibatis/builder/xml/*.xsd" }))
+        .isNotEmpty();
+  }
+
+  @Test
+  void scanResourcesInJarFile() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String locationPattern = "classpath*:org/apache/ibatis/**/*.dtd";
+    Set<String> expectedPaths = new TreeSet<>();
+    for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+      String uri = resource.getURI().toString();
+      expectedPaths.add(uri.substring(uri.indexOf("!/") + 2));
+    }
+    Assertions.assertThat(expectedPaths).contains("org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
+    Assertions.assertThat(scanner.scanResources(new String[] { locationPattern }))
+        .containsExactlyElementsOf(expectedPaths);
+    Assertions.assertThat(scanner.scanResources(new String[] { "classpath:org/apache/ibatis/builder/xml/*.dtd" }))
+        .containsExactly("org/apache/ibatis/builder/xml/mybatis-3-config.dtd",
+            "org/apache/ibatis/builder/xml/mybatis-3-mapper.dtd");
+  }
+
+  @Test
+  void scanClassesInJarFile() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    Assertions.assertThat(scanner.scanClasses("typeHandler", new String[] { "org.apache.ibatis.type" },
+        TypeHandler.class, false, true)).contains(StringTypeHandler.class, IntegerTypeHandler.class)
+        .doesNotContain(BaseTypeHandler.class);
+  }
+
+  @Test
+  void filterCandidatesByClassMetadata() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String[] packagePatterns = { "org.mybatis.spring.nativex.candidate" };
+    Class<?> localCandidate = loadClass(ConcreteCandidate.class.getName() + "$1LocalCandidate");
+    Assertions.assertThat(scanner.scanClasses("all", packagePatterns, void.class, true, true))
+        .containsExactlyInAnyOrder(AbstractCandidate.class, ConcreteCandidate.class,
+            ConcreteCandidate.AbstractMemberCandidate.class, ConcreteCandidate.MemberCandidate.class, localCandidate,
+            OtherType.class);
+    Assertions.assertThat(scanner.scanClasses("concrete", packagePatterns, void.class, false, false))
+        .containsExactlyInAnyOrder(ConcreteCandidate.class, localCandidate, OtherType.class);
+  }
+
+  @Test
+  void filterCandidatesSameAsLoadedClasses() throws IOException {
+    MyBatisResourcesScanner scanner = new MyBatisResourcesScanner(new StandardEnvironment());
+    String[] packagePatterns = { "org.mybatis.spring.nativex.candidate" };
+    Set<Class<?>> classes = new TreeSet<>(Comparator.comparing(Class::getName));
+    for (Resource resource : new PathMatchingResourcePatternResolver()
+        .getResources("classpath*:org/mybatis/spring/nativex/candidate/**/*.class")) {
+      String fileName = resource.getFilename();
+      classes.add(loadClass("org.mybatis.spring.nativex.candidate."
+          + fileName.substring(0, fileName.length() - ".class".length())));
+    }
+    Assertions.assertThat(classes).contains(ConcreteCandidate.MemberCandidateType.class,
+        new ConcreteCandidate().createAnonymous().getClass(), new ConcreteCandidate().createLocal().getClass());
+    for (Class<?> assignableType : new Class<?>[] { void.class, CandidateType.class, AbstractCandidate.class }) {
+      for (boolean includeAbstract : new boolean[] { true, false }) {
+        for (boolean includeMember : new boolean[] { true, false }) {
+          Set<Class<?>> expected = classes.stream()
+              .filter(clazz -> assignableType == void.class || assignableType.isAssignableFrom(clazz))
+              .filter(clazz -> !clazz.isAnonymousClass()).filter(clazz -> !clazz.isInterface())
+              .filter(clazz -> includeAbstract || !Modifier.isAbstract(clazz.getModifiers()))
+              .filter(clazz -> includeMember || !clazz.isMemberClass())
+              .collect(Collectors.toCollection(LinkedHashSet::new));
+          Assertions.assertThat(scanner.scanClasses(assignableType.getSimpleName() + includeAbstract + includeMember,
+              packagePatterns, assignableType, includeAbstract, includeMember))
+              .as("assignableType: %s, includeAbstract: %s, includeMember: %s", assignableType, includeAbstract,
+                  includeMember)
+              .containsExactlyInAnyOrderElementsOf(expected);
+        }
+      }
+    }
+  }
+
+  private static Class<?> loadClass(String className) {
+    try {
+      return Class.forName(className);
+    } catch (ClassNotFoundException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,71 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MyBatisScanCacheTest {
+
+  @Test
+  void discardClasspathDependentResultsWhenOtherJarFileHasBeenChanged(@TempDir Path tempDir) throws IOException {
+    File scannedJarFile = Files.write(tempDir.resolve("scanned.jar"), new byte[] { 1 }).toFile();
+    File otherJarFile = Files.write(tempDir.resolve("other.jar"), new byte[] { 1 }).toFile();
+    Path location = tempDir.resolve("scan-cache.properties");
+    try (URLClassLoader classLoader = new URLClassLoader(
+        new URL[] { scannedJarFile.toURI().toURL(), otherJarFile.toURI().toURL() }, null)) {
+      MyBatisScanCache scanCache = MyBatisScanCache.load(location, classLoader);
+      scanCache.put(scannedJarFile, "classes:typeHandler", true, Collections.singleton("com.example.FooTypeHandler"));
+      scanCache.put(scannedJarFile, "resources", false, Collections.singleton("mapper/FooMapper.xml"));
+      scanCache.save();
+
+      scanCache = MyBatisScanCache.load(location, classLoader);
+      Assertions.assertThat(scanCache.get(scannedJarFile, "classes:typeHandler", true))
+          .containsExactly("com.example.FooTypeHandler");
+      Assertions.assertThat(scanCache.get(scannedJarFile, "resources", false)).containsExactly("mapper/FooMapper.xml");
+
+      Assertions.assertThat(otherJarFile.setLastModified(otherJarFile.lastModified() - 60_000)).isTrue();
+
+      scanCache = MyBatisScanCache.load(location, classLoader);
+      Assertions.assertThat(scanCache.get(scannedJarFile, "classes:typeHandler", true)).isNull();
+      Assertions.assertThat(scanCache.get(scannedJarFile, "resources", false)).containsExactly("mapper/FooMapper.xml");
+    }
+  }
+
+  @Test
+  void resolveDefaultLocationAgainstBuildOutputDirectory(@TempDir Path tempDir) throws IOException {
+    Path classesDir = Files.createDirectories(tempDir.resolve("target").resolve("classes"));
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classesDir.toUri().toURL() }, null)) {
+      Assertions.assertThat(MyBatisBuildOutputs.resolve("mybatis-native/scan-cache.properties", classLoader))
+          .isEqualTo(tempDir.resolve("target").resolve("mybatis-native").resolve("scan-cache.properties"));
+    }
+    Path gradleClassesDir = Files.createDirectories(tempDir.resolve("build").resolve("classes/java/main"));
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { gradleClassesDir.toUri().toURL() }, null)) {
+      Assertions.assertThat(MyBatisBuildOutputs.resolve("mybatis-native/scan-cache.properties", classLoader))
+          .isEqualTo(tempDir.resolve("build").resolve("mybatis-native").resolve("scan-cache.properties"));
+    }
+  }
+
+}
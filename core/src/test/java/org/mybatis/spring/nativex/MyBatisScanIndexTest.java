@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.AntPathMatcher;
+
+class MyBatisScanIndexTest {
+
+  @Test
+  void load() throws IOException {
+    MyBatisScanIndex scanIndex = MyBatisScanIndex.load(new ClassPathResource("index/").getURL().toString());
+    Map<String, Set<String>> entries = scanIndex.getEntries("org/mybatis/spring/nativex/**/*.class",
+        new AntPathMatcher());
+    Assertions.assertThat(entries).containsOnlyKeys("org.mybatis.spring.nativex.component.AbstractTypeHandler",
+        "org.mybatis.spring.nativex.component.BarService", "org.mybatis.spring.nativex.component.BarTypeHandler",
+        "org.mybatis.spring.nativex.component.TypeHandlers$InnerTypeHandler",
+        "org.mybatis.spring.nativex.entity.City");
+    Assertions.assertThat(entries.get("org.mybatis.spring.nativex.component.AbstractTypeHandler"))
+        .containsExactlyInAnyOrder(MyBatisScanIndex.ABSTRACT, MyBatisScanIndex.TYPE_HANDLER);
+    Assertions.assertThat(entries.get("org.mybatis.spring.nativex.component.BarService")).isEmpty();
+    Assertions.assertThat(entries.get("org.mybatis.spring.nativex.component.TypeHandlers$InnerTypeHandler"))
+        .containsExactlyInAnyOrder(MyBatisScanIndex.MEMBER, MyBatisScanIndex.TYPE_HANDLER);
+  }
+
+  @Test
+  void getEntriesWithPattern() throws IOException {
+    MyBatisScanIndex scanIndex = MyBatisScanIndex.load(new ClassPathResource("index/").getURL().toString());
+    Assertions.assertThat(scanIndex.getEntries("org/mybatis/spring/nativex/entity/**/*.class", new AntPathMatcher()))
+        .containsOnlyKeys("org.mybatis.spring.nativex.entity.City");
+    Assertions.assertThat(scanIndex.getEntries("org/mybatis/spring/nativex/*/Bar*.class", new AntPathMatcher()))
+        .containsOnlyKeys("org.mybatis.spring.nativex.component.BarService",
+            "org.mybatis.spring.nativex.component.BarTypeHandler");
+  }
+
+  @Test
+  void notExists() throws IOException {
+    Assertions.assertThat(MyBatisScanIndex.load(new ClassPathResource("mapper/").getURL().toString())).isNull();
+  }
+
+}
@@ -22,6 +22,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.apache.ibatis.type.BaseTypeHandler;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.nativex.component.BarTypeHandler;
@@ -33,6 +34,7 @@ import org.mybatis.spring.nativex.entity.Country;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.DefaultNativeReflectionEntry;
 import org.springframework.aot.context.bootstrap.generator.infrastructure.nativex.NativeConfigurationRegistry;
 import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.nativex.hint.TypeAccess;
@@ -118,6 +120,62 @@ class MyBatisScannedResourcesNativeConfigurationProcessorTest {
 
   }
 
+  @Test
+  void precise() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    TestPropertyValues.of("mybatis.native.precise-reflection-hints=true").applyTo(context);
+    context.registerBean(ConfigurationForMulti.class);
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    // reflection hint
+    {
+      Map<Class<?>, DefaultNativeReflectionEntry> entries = registry.reflection().reflectionEntries()
+          .collect(Collectors.toMap(DefaultNativeReflectionEntry::getType, x -> x));
+      // includes super classes of type handlers(BaseTypeHandler and TypeReference)
+      Assertions.assertThat(entries).hasSize(8);
+      Assertions.assertThat(entries.get(BaseTypeHandler.class))
+          .satisfies(x -> Assertions.assertThat(x.getAccess()).isEmpty());
+      // explicit type accesses take precedence over the precise mode
+      Assertions.assertThat(entries.get(City.class)).satisfies(x -> Assertions.assertThat(x.getAccess().toArray())
+          .isEqualTo(new TypeAccess[] { PUBLIC_CONSTRUCTORS, PUBLIC_METHODS }));
+      Assertions.assertThat(entries.get(FooTypeHandler.class)).satisfies(x -> {
+        Assertions.assertThat(x.getAccess()).isEmpty();
+        Assertions.assertThat(x.getConstructors()).containsExactlyInAnyOrder(FooTypeHandler.class
+            .getDeclaredConstructors());
+        Assertions.assertThat(x.getFields()).isEmpty();
+      });
+      Assertions.assertThat(entries.get(AnyTypeHandler.class))
+          .satisfies(x -> Assertions.assertThat(x.getAccess()).isEmpty());
+    }
+  }
+
+  @Test
+  void excludeCompiledMapperResources() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForExcludeCompiledMapperResources.class);
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    // resource hint
+    {
+      Set<String> resources = registry.resources().toResourcesDescriptor().getPatterns();
+      Assertions.assertThat(resources).containsExactlyInAnyOrder("compile/DynamicMapper.xml");
+    }
+  }
+
+  @Test
+  void notExcludeCompiledMapperResources() {
+    AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+    context.registerBean(ConfigurationForNotExcludeCompiledMapperResources.class);
+    context.refresh();
+    NativeConfigurationRegistry registry = process(context.getDefaultListableBeanFactory());
+    // resource hint
+    {
+      Set<String> resources = registry.resources().toResourcesDescriptor().getPatterns();
+      Assertions.assertThat(resources).containsExactlyInAnyOrder("compile/DynamicMapper.xml",
+          "compile/StaticMapper.xml");
+    }
+  }
+
   private NativeConfigurationRegistry process(DefaultListableBeanFactory beanFactory) {
     NativeConfigurationRegistry registry = new NativeConfigurationRegistry();
     new MyBatisScannedResourcesNativeConfigurationProcessor().process(beanFactory, registry);
@@ -131,6 +189,18 @@ class MyBatisScannedResourcesNativeConfigurationProcessorTest {
 
   }
 
+  @MyBatisResourcesScan(mapperLocationPatterns = "compile/*.xml", compileMappers = true, excludeCompiledMapperResources = true)
+  @Configuration
+  static class ConfigurationForExcludeCompiledMapperResources {
+
+  }
+
+  @MyBatisResourcesScan(mapperLocationPatterns = "compile/*.xml", compileMappers = true)
+  @Configuration
+  static class ConfigurationForNotExcludeCompiledMapperResources {
+
+  }
+
   @MyBatisResourcesScan(typeAliasesPackages = "org.mybatis.spring.nativex.entity", typeAccesses = {
       TypeAccess.PUBLIC_CONSTRUCTORS, TypeAccess.PUBLIC_METHODS })
   @MyBatisResourcesScan(typeHandlerPackages = "org.mybatis.spring.nativex.component")
@@ -0,0 +1,267 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.SelectProvider;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MyBatisXMLLanguageDriverTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setup() throws IOException {
+    this.sqlSessionFactory = createSqlSessionFactory(new MyBatisXMLLanguageDriver());
+  }
+
+  private static SqlSessionFactory createSqlSessionFactory(MyBatisXMLLanguageDriver languageDriver)
+      throws IOException {
+    Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+        new UnpooledDataSource("org.h2.Driver", "jdbc:h2:mem:binding", "sa", "")));
+    configuration.getLanguageRegistry().register(languageDriver);
+    configuration.setDefaultScriptingLanguage(MyBatisXMLLanguageDriver.class);
+    try (InputStream in = Resources.getResourceAsStream("binding/BindingMapper.xml")) {
+      new XMLMapperBuilder(in, configuration, "binding/BindingMapper.xml", configuration.getSqlFragments()).parse();
+    }
+    return new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @Test
+  void createParameterHandler() {
+    MappedStatement statement = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("binding.BindingMapper.selectByValue");
+    Assertions.assertThat(statement.getLang()).isInstanceOf(MyBatisXMLLanguageDriver.class);
+    Assertions.assertThat(statement.getLang().createParameterHandler(statement, "test", statement.getBoundSql("test")))
+        .isInstanceOf(MyBatisParameterHandler.class);
+  }
+
+  @Test
+  void notCreateParameterHandlerWithoutFastParameterBinding() {
+    MappedStatement statement = sqlSessionFactory.getConfiguration()
+        .getMappedStatement("binding.BindingMapper.selectByValue");
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver(false, 0);
+    Assertions.assertThat(languageDriver.createParameterHandler(statement, "test", statement.getBoundSql("test")))
+        .isInstanceOf(DefaultParameterHandler.class);
+  }
+
+  @Test
+  void cacheProviderSqlSource() throws IOException {
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver(true, 2);
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(languageDriver);
+    sqlSessionFactory.getConfiguration().addMapper(ProviderMapper.class);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      ProviderMapper mapper = session.getMapper(ProviderMapper.class);
+      Assertions.assertThat(mapper.select("Taro")).isEqualTo("Taro");
+      Assertions.assertThat(mapper.select("Hanako")).isEqualTo("Hanako");
+    }
+    Assertions.assertThat(languageDriver.getCachedSqls())
+        .containsExactly("SELECT CAST(#{name} AS VARCHAR(20))");
+  }
+
+  @Test
+  void cacheAnnotationSqlSource() throws IOException {
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver(true, 2);
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(languageDriver);
+    sqlSessionFactory.getConfiguration().addMapper(AnnotationMapper.class);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      AnnotationMapper mapper = session.getMapper(AnnotationMapper.class);
+      Assertions.assertThat(mapper.selectOne()).isEqualTo(1);
+      Assertions.assertThat(mapper.selectTwo()).isEqualTo(2);
+      Assertions.assertThat(mapper.selectThree()).isEqualTo(3);
+    }
+    Assertions.assertThat(languageDriver.getCachedSqls()).hasSize(2);
+    Assertions.assertThat(languageDriver.createSqlSource(sqlSessionFactory.getConfiguration(), "SELECT 1",
+        Object.class)).isSameAs(
+            languageDriver.createSqlSource(sqlSessionFactory.getConfiguration(), "SELECT 1", Object.class));
+    Assertions.assertThat(languageDriver.getCachedSqls()).endsWith("SELECT 1");
+  }
+
+  @Test
+  void notCacheScriptSqlSource() throws IOException {
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver(true, 2);
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(languageDriver);
+    String script = "<script>SELECT 1<if test='true'> + 1</if></script>";
+    Assertions.assertThat(languageDriver.createSqlSource(sqlSessionFactory.getConfiguration(), script,
+        Object.class)).isNotSameAs(
+            languageDriver.createSqlSource(sqlSessionFactory.getConfiguration(), script, Object.class));
+    Assertions.assertThat(languageDriver.getCachedSqls()).isEmpty();
+  }
+
+  @Test
+  void evictLeastRecentlyUsedProviderSqlSource() throws IOException {
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver(true, 2);
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(languageDriver);
+    sqlSessionFactory.getConfiguration().addMapper(ProviderMapper.class);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      ProviderMapper mapper = session.getMapper(ProviderMapper.class);
+      Assertions.assertThat(mapper.selectLabel("a")).isEqualTo("a");
+      Assertions.assertThat(mapper.selectLabel("b")).isEqualTo("b");
+      Assertions.assertThat(mapper.selectLabel("a")).isEqualTo("a");
+      Assertions.assertThat(mapper.selectLabel("c")).isEqualTo("c");
+    }
+    Assertions.assertThat(languageDriver.getCachedSqls()).containsExactly("SELECT 'a'", "SELECT 'c'");
+  }
+
+  @Test
+  void notCacheProviderSqlSourceByDefault() throws IOException {
+    MyBatisXMLLanguageDriver languageDriver = new MyBatisXMLLanguageDriver();
+    SqlSessionFactory sqlSessionFactory = createSqlSessionFactory(languageDriver);
+    sqlSessionFactory.getConfiguration().addMapper(ProviderMapper.class);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Assertions.assertThat(session.getMapper(ProviderMapper.class).select("Taro")).isEqualTo("Taro");
+    }
+    Assertions.assertThat(languageDriver.getCachedSqls()).isEmpty();
+  }
+
+  @Test
+  void bindProviderSql() {
+    sqlSessionFactory.getConfiguration().addMapper(ProviderMapper.class);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      ProviderMapper mapper = session.getMapper(ProviderMapper.class);
+      Assertions.assertThat(mapper.select("Taro")).isEqualTo("Taro");
+      Assertions.assertThat(mapper.select("Hanako")).isEqualTo("Hanako");
+    }
+  }
+
+  @Test
+  void bindBeanProperties() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      String result = session.selectOne("binding.BindingMapper.selectByProperties", new Person("Taro", "Japan"));
+      Assertions.assertThat(result).isEqualTo("Taro:Japan");
+    }
+  }
+
+  @Test
+  void bindMapProperties() {
+    Map<String, Object> country = new HashMap<>();
+    country.put("name", "Japan");
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "Taro");
+    parameter.put("country", country);
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      String result = session.selectOne("binding.BindingMapper.selectByProperties", parameter);
+      Assertions.assertThat(result).isEqualTo("Taro:Japan");
+    }
+  }
+
+  @Test
+  void bindSimpleValue() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Assertions.assertThat(session.<String> selectOne("binding.BindingMapper.selectByValue", "Taro"))
+          .isEqualTo("Taro");
+      Assertions.assertThat(session.<String> selectOne("binding.BindingMapper.selectByValue")).isNull();
+    }
+  }
+
+  @Test
+  void bindAdditionalParameter() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      String result = session.selectOne("binding.BindingMapper.selectByAdditionalParameter",
+          new Person("Taro", "Japan"));
+      Assertions.assertThat(result).isEqualTo("@Taro");
+    }
+  }
+
+  @Test
+  void bindUnknownProperty() {
+    try (SqlSession session = sqlSessionFactory.openSession()) {
+      Assertions
+          .assertThatThrownBy(() -> session.selectOne("binding.BindingMapper.selectByProperties", new Country("Japan")))
+          .hasRootCauseInstanceOf(ReflectionException.class);
+    }
+  }
+
+  interface ProviderMapper {
+    @SelectProvider(type = SqlProvider.class, method = "select")
+    String select(String name);
+
+    @SelectProvider(type = SqlProvider.class, method = "selectLabel")
+    String selectLabel(String label);
+  }
+
+  public static class SqlProvider {
+    public static String select() {
+      return "SELECT CAST(#{name} AS VARCHAR(20))";
+    }
+
+    public static String selectLabel(String label) {
+      return "SELECT '" + label + "'";
+    }
+  }
+
+  interface AnnotationMapper {
+    @Select("SELECT 1")
+    int selectOne();
+
+    @Select("SELECT 2")
+    int selectTwo();
+
+    @Select("SELECT 3")
+    int selectThree();
+  }
+
+  public static class Person {
+    private final String name;
+    private final Country country;
+
+    Person(String name, String countryName) {
+      this.name = name;
+      this.country = new Country(countryName);
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Country getCountry() {
+      return country;
+    }
+  }
+
+  public static class Country {
+    private final String name;
+
+    Country(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+  }
+
+}
@@ -15,23 +15,36 @@
  */
 package org.mybatis.spring.nativex.autoconfigure;
 
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.scripting.xmltags.DynamicSqlSource;
+import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mybatis.spring.nativex.MyBatisResourcesScan;
+import org.mybatis.spring.nativex.MyBatisScannedResourcesHolder;
+import org.mybatis.spring.nativex.MyBatisXMLLanguageDriver;
 import org.mybatis.spring.nativex.component.AbstractTypeHandler;
 import org.mybatis.spring.nativex.component.BarService;
 import org.mybatis.spring.nativex.component.BarTypeHandler;
 import org.mybatis.spring.nativex.component.FooTypeHandler;
 import org.mybatis.spring.nativex.component.TypeHandlers;
 import org.mybatis.spring.nativex.component2.AnyTypeHandler;
+import org.mybatis.spring.nativex.component3.MappedTypeHandler;
 import org.mybatis.spring.nativex.entity.City;
 import org.mybatis.spring.nativex.entity.Country;
+import org.springframework.beans.PropertyValue;
+import org.springframework.boot.LazyInitializationBeanFactoryPostProcessor;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.annotation.Configuration;
 
@@ -133,6 +146,121 @@ class MyBatisSpringNativeAutoConfigurationTest {
     }
   }
 
+  @Test
+  void typeHandlerWithMappedTypes() {
+    this.context.register(MappedTypesConfiguration.class);
+    this.context.refresh();
+    TypeHandlerRegistry registry = this.context.getBean(SqlSessionFactory.class).getConfiguration()
+        .getTypeHandlerRegistry();
+    Assertions.assertThat(registry.getTypeHandler(String.class, JdbcType.CLOB)).isInstanceOf(MappedTypeHandler.class);
+    Assertions.assertThat(registry.getTypeHandler(String.class, JdbcType.VARCHAR))
+        .isSameAs(registry.getTypeHandler(String.class, JdbcType.CLOB))
+        .isSameAs(registry.getTypeHandler(String.class, (JdbcType) null));
+    Assertions.assertThat(registry.getTypeHandler(StringBuilder.class, JdbcType.CLOB))
+        .isInstanceOf(MappedTypeHandler.class)
+        .isNotSameAs(registry.getTypeHandler(String.class, JdbcType.CLOB));
+    TypeHandler<?> typeHandler = registry.getTypeHandler(StringBuilder.class, JdbcType.VARCHAR);
+    Assertions.assertThat(((MappedTypeHandler) typeHandler).getJavaType()).isEqualTo(StringBuilder.class);
+  }
+
+  @Test
+  void compileMappers() {
+    this.context.register(CompileMappersConfiguration.class);
+    this.context.refresh();
+    SqlSessionFactory factory = this.context.getBean(SqlSessionFactory.class);
+    Assertions.assertThat(factory.getConfiguration().getMappedStatement("compile.StaticMapper.selectName")
+        .getSqlSource()).isInstanceOf(StaticSqlSource.class);
+    Assertions.assertThat(factory.getConfiguration().getMappedStatement("compile.DynamicMapper.select")
+        .getSqlSource()).isInstanceOf(DynamicSqlSource.class);
+    Assertions.assertThat(factory.getConfiguration().getResultMap("compile.StaticMapper.nameResultMap")
+        .getResultMappings()).hasSize(3);
+    try (SqlSession session = factory.openSession()) {
+      Map<String, Object> result = session.selectOne("compile.StaticMapper.selectName", "mybatis");
+      Assertions.assertThat(result).containsEntry("id", 1).containsEntry("name", "mybatis");
+      Assertions.assertThat(session.<Integer> selectOne("compile.StaticMapper.selectOne")).isEqualTo(1);
+      Assertions.assertThat(session.<Integer> selectOne("compile.DynamicMapper.select")).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void fastParameterBinding() {
+    TestPropertyValues.of("mybatis.native.fast-parameter-binding=true").applyTo(this.context);
+    this.context.register(CompileMappersConfiguration.class);
+    this.context.refresh();
+    SqlSessionFactory factory = this.context.getBean(SqlSessionFactory.class);
+    Assertions.assertThat(factory.getConfiguration().getDefaultScriptingLanguageInstance())
+        .isInstanceOf(MyBatisXMLLanguageDriver.class);
+    Assertions.assertThat(factory.getConfiguration().getMappedStatement("compile.StaticMapper.selectName")
+        .getSqlSource()).isInstanceOf(StaticSqlSource.class);
+    try (SqlSession session = factory.openSession()) {
+      Map<String, Object> result = session.selectOne("compile.StaticMapper.selectName", "mybatis");
+      Assertions.assertThat(result).containsEntry("name", "mybatis");
+    }
+  }
+
+  @Test
+  void providerSqlCache() {
+    TestPropertyValues.of("mybatis.native.provider-sql-cache.enabled=true").applyTo(this.context);
+    this.context.register(CompileMappersConfiguration.class);
+    this.context.refresh();
+    SqlSessionFactory factory = this.context.getBean(SqlSessionFactory.class);
+    Assertions.assertThat(factory.getConfiguration().getDefaultScriptingLanguageInstance())
+        .isInstanceOf(MyBatisXMLLanguageDriver.class);
+    try (SqlSession session = factory.openSession()) {
+      Map<String, Object> result = session.selectOne("compile.StaticMapper.selectName", "mybatis");
+      Assertions.assertThat(result).containsEntry("name", "mybatis");
+    }
+  }
+
+  @Test
+  void notProviderSqlCacheAndFastParameterBinding() {
+    this.context.register(CompileMappersConfiguration.class);
+    this.context.refresh();
+    SqlSessionFactory factory = this.context.getBean(SqlSessionFactory.class);
+    Assertions.assertThat(factory.getConfiguration().getDefaultScriptingLanguageInstance())
+        .isNotInstanceOf(MyBatisXMLLanguageDriver.class);
+  }
+
+  @Test
+  void releaseScannedResources() {
+    TestPropertyValues.of("mybatis.native.release-scanned-resources=true").applyTo(this.context);
+    this.context.register(SingleConfiguration.class);
+    this.context.refresh();
+    SqlSessionFactory factory = this.context.getBean(SqlSessionFactory.class);
+    Assertions.assertThat(factory.getConfiguration().getTypeAliasRegistry().resolveAlias("city"))
+        .isEqualTo(City.class);
+    Assertions.assertThat(factory.getConfiguration().getMappedStatementNames()).contains("sub1.FooMapper.select");
+    MyBatisScannedResourcesHolder holder = this.context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getTypeAliasesClasses()).isNull();
+    Assertions.assertThat(holder.getMapperLocations()).isNull();
+    String beanName = this.context.getBeanNamesForType(MyBatisScannedResourcesHolder.class)[0];
+    Assertions.assertThat(this.context.getBeanFactory().getBeanDefinition(beanName).getPropertyValues())
+        .extracting(PropertyValue::getName).containsExactly("released");
+  }
+
+  @Test
+  void failBuildingSqlSessionFactoryAfterReleasingScannedResources() {
+    TestPropertyValues.of("mybatis.native.release-scanned-resources=true").applyTo(this.context);
+    this.context.addBeanFactoryPostProcessor(new LazyInitializationBeanFactoryPostProcessor());
+    this.context.register(SingleConfiguration.class);
+    this.context.refresh();
+    Assertions.assertThatThrownBy(() -> this.context.getBean(SqlSessionFactory.class))
+        .hasRootCauseInstanceOf(IllegalStateException.class)
+        .hasRootCauseMessage("Cannot apply scanned resources of @MyBatisResourcesScan to the SqlSessionFactory"
+            + " because they have been released after refreshing the application context. Set"
+            + " 'mybatis.native.release-scanned-resources' to false when the SqlSessionFactory is created after"
+            + " refreshing (e.g. lazy initialization or a child context).");
+  }
+
+  @Test
+  void notReleaseScannedResources() {
+    this.context.register(SingleConfiguration.class);
+    this.context.refresh();
+    MyBatisScannedResourcesHolder holder = this.context.getBean(MyBatisScannedResourcesHolder.class);
+    Assertions.assertThat(holder.getTypeAliasesClasses()).containsExactly(City.class, Country.class);
+    Assertions.assertThat(holder.getMapperLocations()).isNotEmpty();
+  }
+
   @EnableAutoConfiguration
   @Configuration
   static class EmptyConfiguration {
@@ -153,6 +281,20 @@ class MyBatisSpringNativeAutoConfigurationTest {
 
   }
 
+  @EnableAutoConfiguration
+  @MyBatisResourcesScan(typeHandlerPackages = "org.mybatis.spring.nativex.component3")
+  @Configuration
+  static class MappedTypesConfiguration {
+
+  }
+
+  @EnableAutoConfiguration
+  @MyBatisResourcesScan(mapperLocationPatterns = "compile/*.xml", compileMappers = true)
+  @Configuration
+  static class CompileMappersConfiguration {
+
+  }
+
   @EnableAutoConfiguration
   @MyBatisResourcesScan(typeAliasesPackages = "org.mybatis.spring.nativex.entity")
   @MyBatisResourcesScan(typeAliasesPackages = "org.mybatis.spring.nativex.component")
@@ -0,0 +1,60 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.component3;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+@MappedTypes({ String.class, StringBuilder.class })
+@MappedJdbcTypes(value = { JdbcType.VARCHAR, JdbcType.CLOB }, includeNullJdbcType = true)
+public class MappedTypeHandler extends BaseTypeHandler<Object> {
+
+  private final Class<?> javaType;
+
+  public MappedTypeHandler(Class<?> javaType) {
+    this.javaType = javaType;
+  }
+
+  public Class<?> getJavaType() {
+    return javaType;
+  }
+
+  @Override
+  public void setNonNullParameter(PreparedStatement ps, int i, Object parameter, JdbcType jdbcType) {
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, String columnName) {
+    return null;
+  }
+
+  @Override
+  public Object getNullableResult(ResultSet rs, int columnIndex) {
+    return null;
+  }
+
+  @Override
+  public Object getNullableResult(CallableStatement cs, int columnIndex) {
+    return null;
+  }
+
+}
@@ -0,0 +1,79 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.mapper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.CacheNamespaceRef;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.WeakCache;
+
+@CacheNamespace(eviction = FifoCache.class)
+public interface CacheMapper {
+
+  @CacheNamespace(implementation = CustomCache.class, eviction = WeakCache.class)
+  interface CustomCacheMapper {
+  }
+
+  @CacheNamespaceRef(CustomCacheMapper.class)
+  interface CacheRefMapper {
+  }
+
+  class CustomCache implements Cache {
+
+    private final String id;
+    private final Map<Object, Object> values = new HashMap<>();
+
+    public CustomCache(String id) {
+      this.id = id;
+    }
+
+    @Override
+    public String getId() {
+      return id;
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      values.put(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+      return values.get(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+      return values.remove(key);
+    }
+
+    @Override
+    public void clear() {
+      values.clear();
+    }
+
+    @Override
+    public int getSize() {
+      return values.size();
+    }
+
+  }
+
+}
@@ -0,0 +1,97 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.mapper;
+
+public interface PreciseMapper {
+
+  Person findById(int id);
+
+  class BaseEntity {
+    private long id;
+
+    public long getId() {
+      return id;
+    }
+
+    public void setId(long id) {
+      this.id = id;
+    }
+  }
+
+  class Person extends BaseEntity {
+    private String name;
+    private int age;
+
+    public Person() {
+    }
+
+    public Person(String name) {
+      this.name = name;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public boolean isAdult() {
+      return age >= 20;
+    }
+
+    public String format() {
+      return name + "(" + age + ")";
+    }
+  }
+
+  interface DefaultMethodMapper {
+
+    Member findByName(String name);
+
+  }
+
+  interface Named {
+
+    String getName();
+
+    default String getDisplayName() {
+      return "[" + getName() + "]";
+    }
+
+    default String describe() {
+      return getDisplayName();
+    }
+  }
+
+  class Member extends BaseEntity implements Named {
+    private static final long serialVersionUID = 1L;
+    public static final String TYPE = "member";
+    public static String defaultName;
+    private String name;
+
+    @Override
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -0,0 +1,164 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.indexer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * The annotation processor that generates the scan index for {@code @MyBatisResourcesScan} at compile time.
+ * <p>
+ * This processor writes classes of compiled module to the {@value #LOCATION}. Each line is formatted as
+ * {@code <binary class name>=<stereotypes>}, and stereotypes are comma separated values of {@code abstract},
+ * {@code member} and {@code typeHandler}. Interfaces, annotations, anonymous classes and local classes are not listed.
+ * When the index file exists in a classpath entry, {@code @MyBatisResourcesScan} resolves classes using it instead of
+ * scanning class files of that classpath entry.
+ * </P>
+ * <p>
+ * When the index file already exists in the class output directory (e.g. incremental compilation that compiles only
+ * changed sources), entries of classes that are not compiled in this time are merged into the new index file, and
+ * entries of classes that no longer exist or are no longer classes are dropped.
+ * </P>
+ *
+ * @author Kazuki Shimizu
+ */
+@SupportedAnnotationTypes("*")
+public class MyBatisIndexProcessor extends AbstractProcessor {
+
+  static final String LOCATION = "META-INF/mybatis-native.index";
+
+  private static final String TYPE_HANDLER_CLASS_NAME = "org.apache.ibatis.type.TypeHandler";
+
+  private final Map<String, String> entries = new TreeMap<>();
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement typeHandlerElement = processingEnv.getElementUtils().getTypeElement(TYPE_HANDLER_CLASS_NAME);
+    TypeMirror typeHandlerType = typeHandlerElement == null ? null
+        : processingEnv.getTypeUtils().erasure(typeHandlerElement.asType());
+    roundEnv.getRootElements().forEach(element -> collect(element, typeHandlerType));
+    if (roundEnv.processingOver()) {
+      boolean existing = mergeExistingIndex();
+      if (existing || !entries.isEmpty()) {
+        writeIndex();
+      }
+    }
+    return false;
+  }
+
+  private void collect(Element element, TypeMirror typeHandlerType) {
+    if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+      return;
+    }
+    TypeElement typeElement = (TypeElement) element;
+    if (element.getKind().isClass()) {
+      List<String> stereotypes = new ArrayList<>();
+      if (typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+        stereotypes.add("abstract");
+      }
+      if (typeElement.getNestingKind() == NestingKind.MEMBER) {
+        stereotypes.add("member");
+      }
+      Types types = processingEnv.getTypeUtils();
+      if (typeHandlerType != null && types.isAssignable(types.erasure(typeElement.asType()), typeHandlerType)) {
+        stereotypes.add("typeHandler");
+      }
+      entries.put(processingEnv.getElementUtils().getBinaryName(typeElement).toString(),
+          String.join(",", stereotypes));
+    }
+    // Member types of classes and interfaces
+    typeElement.getEnclosedElements().forEach(x -> collect(x, typeHandlerType));
+  }
+
+  private boolean mergeExistingIndex() {
+    Properties existingEntries = new Properties();
+    try {
+      FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+      try (InputStream in = file.openInputStream()) {
+        existingEntries.load(in);
+      }
+    } catch (IOException | IllegalArgumentException e) {
+      // Index file does not exist in the class output directory
+      return false;
+    }
+    existingEntries.stringPropertyNames().forEach(className -> {
+      TypeElement typeElement = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+      if (typeElement != null && typeElement.getKind().isClass()) {
+        entries.putIfAbsent(className, existingEntries.getProperty(className));
+      }
+    });
+    return true;
+  }
+
+  private void writeIndex() {
+    try {
+      FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", LOCATION);
+      try (Writer writer = file.openWriter()) {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+          writer.write(escape(entry.getKey()) + "=" + entry.getValue() + "\n");
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Fail writing " + LOCATION + ". Cause: " + e);
+    }
+  }
+
+  private static String escape(String value) {
+    // Same escape rule as java.util.Properties because index file is read as ISO 8859-1
+    StringBuilder sb = new StringBuilder(value.length());
+    for (char c : value.toCharArray()) {
+      if (c < 0x20 || c > 0x7e) {
+        sb.append(String.format("\\u%04x", (int) c));
+      } else {
+        sb.append(c);
+      }
+    }
+    return sb.toString();
+  }
+
+}
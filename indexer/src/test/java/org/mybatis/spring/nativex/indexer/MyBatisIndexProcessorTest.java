@@ -0,0 +1,124 @@
+/*
+ *    Copyright 2022 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.spring.nativex.indexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MyBatisIndexProcessorTest {
+
+  @Test
+  void generateIndex(@TempDir Path outputDir) throws IOException {
+    compile(outputDir,
+        source("com.example.City", "package com.example; public class City { public static class Address {} }"),
+        source("com.example.Entity", "package com.example; public abstract class Entity {}"),
+        source("com.example.Status", "package com.example; public enum Status { ACTIVE }"),
+        source("com.example.Repository", "package com.example; public interface Repository {"
+            + " class Key {} void save(); }"),
+        source("com.example.MyAnnotation", "package com.example; public @interface MyAnnotation {}"),
+        source("com.example.Service", "package com.example; public class Service {"
+            + " Runnable task = new Runnable() { public void run() {} };"
+            + " void execute() { class Local {} } }"),
+        source("com.example.type.FooTypeHandler", "package com.example.type;"
+            + " public class FooTypeHandler extends org.apache.ibatis.type.StringTypeHandler {}"),
+        source("com.example.type.AbstractTypeHandler", "package com.example.type;"
+            + " public abstract class AbstractTypeHandler<T> implements org.apache.ibatis.type.TypeHandler<T> {}"));
+
+    Assertions.assertThat(outputDir.resolve(MyBatisIndexProcessor.LOCATION)).exists();
+    Properties entries = loadIndex(outputDir);
+    Assertions.assertThat(entries).containsOnlyKeys("com.example.City", "com.example.City$Address",
+        "com.example.Entity", "com.example.Status", "com.example.Repository$Key", "com.example.Service",
+        "com.example.type.FooTypeHandler", "com.example.type.AbstractTypeHandler");
+    Assertions.assertThat(entries.getProperty("com.example.City")).isEmpty();
+    Assertions.assertThat(entries.getProperty("com.example.City$Address")).isEqualTo("member");
+    Assertions.assertThat(entries.getProperty("com.example.Entity")).isEqualTo("abstract");
+    Assertions.assertThat(entries.getProperty("com.example.Repository$Key")).isEqualTo("member");
+    Assertions.assertThat(entries.getProperty("com.example.type.FooTypeHandler")).isEqualTo("typeHandler");
+    Assertions.assertThat(entries.getProperty("com.example.type.AbstractTypeHandler"))
+        .isEqualTo("abstract,typeHandler");
+  }
+
+  @Test
+  void notGenerateIndexWhenNoClass(@TempDir Path outputDir) throws IOException {
+    compile(outputDir, source("com.example.Repository", "package com.example; public interface Repository {}"));
+
+    Assertions.assertThat(outputDir.resolve(MyBatisIndexProcessor.LOCATION)).doesNotExist();
+  }
+
+  @Test
+  void mergeExistingIndex(@TempDir Path outputDir) throws IOException {
+    compile(outputDir, source("com.example.City", "package com.example; public class City {}"),
+        source("com.example.Entity", "package com.example; public class Entity {}"),
+        source("com.example.Status", "package com.example; public enum Status { ACTIVE }"),
+        source("com.example.Service", "package com.example; public class Service {}"));
+    Files.delete(outputDir.resolve("com/example/Status.class"));
+
+    compile(outputDir, source("com.example.Entity", "package com.example; public abstract class Entity {}"),
+        source("com.example.Service", "package com.example; public interface Service {}"),
+        source("com.example.Address", "package com.example; public class Address {}"));
+
+    Properties entries = loadIndex(outputDir);
+    Assertions.assertThat(entries).containsOnlyKeys("com.example.City", "com.example.Entity", "com.example.Address");
+    Assertions.assertThat(entries.getProperty("com.example.City")).isEmpty();
+    Assertions.assertThat(entries.getProperty("com.example.Entity")).isEqualTo("abstract");
+    Assertions.assertThat(entries.getProperty("com.example.Address")).isEmpty();
+  }
+
+  private Properties loadIndex(Path outputDir) throws IOException {
+    Properties entries = new Properties();
+    try (InputStream in = Files.newInputStream(outputDir.resolve(MyBatisIndexProcessor.LOCATION))) {
+      entries.load(in);
+    }
+    return entries;
+  }
+
+  private void compile(Path outputDir, JavaFileObject... sources) {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    // Class output directory is included in classpath as same as incremental compilation
+    List<String> options = Arrays.asList("-d", outputDir.toString(), "-classpath",
+        outputDir + File.pathSeparator + System.getProperty("java.class.path"));
+    JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, options, null, Arrays.asList(sources));
+    task.setProcessors(Arrays.asList(new MyBatisIndexProcessor()));
+    Assertions.assertThat(task.call()).isTrue();
+  }
+
+  private JavaFileObject source(String className, String code) {
+    return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+        JavaFileObject.Kind.SOURCE) {
+      @Override
+      public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+        return code;
+      }
+    };
+  }
+
+}